@@ -0,0 +1,83 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Batch evaluation of many times against a scalar loop over the same times.
+ * <p>
+ * The batch runs on the Vector API when {@link BernsteinUtil#VECTORIZED};
+ * run with {@code -jvmArgsAppend -Dcom.vince2678.bezier.vectorize=false}
+ * to measure the scalar fallback.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class BatchSolveBenchmark
+{
+	@Param({"1", "3", "10", "20", "40"})
+	private int degree;
+
+	@Param({"16", "1024"})
+	private int count;
+
+	private BezierCurve curve;
+	private double[] ts;
+	private double[] xs;
+	private double[] ys;
+	private double[] out;
+
+	@Setup
+	public void setUp()
+	{
+		SplittableRandom random = new SplittableRandom(42);
+		curve = new BezierCurve(new Point(100, 100), new Point(900, 500), degree - 1,
+			BezierCurve.Sampling.UNIFORM, random);
+
+		ts = new double[count];
+		for (int i = 0; i < count; i++)
+		{
+			ts[i] = (i + 1.0D) / (count + 1);
+		}
+		xs = new double[count];
+		ys = new double[count];
+		out = new double[2];
+	}
+
+	@Benchmark
+	public void batch(Blackhole blackhole)
+	{
+		curve.solve(ts, xs, ys, count);
+		blackhole.consume(xs);
+		blackhole.consume(ys);
+	}
+
+	@Benchmark
+	public void scalar(Blackhole blackhole)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			curve.solve(ts[i], out);
+			xs[i] = out[0];
+			ys[i] = out[1];
+		}
+		blackhole.consume(xs);
+		blackhole.consume(ys);
+	}
+}
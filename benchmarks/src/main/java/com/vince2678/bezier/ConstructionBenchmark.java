@@ -0,0 +1,52 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Curve construction, including picking the random control points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class ConstructionBenchmark
+{
+	@Param({"1", "3", "10", "20", "40"})
+	private int degree;
+
+	@Param({"UNIFORM", "HALTON"})
+	private BezierCurve.Sampling sampling;
+
+	private Point p1;
+	private Point p2;
+	private SplittableRandom random;
+
+	@Setup
+	public void setUp()
+	{
+		p1 = new Point(100, 100);
+		p2 = new Point(900, 500);
+		random = new SplittableRandom(42);
+	}
+
+	@Benchmark
+	public BezierCurve construct()
+	{
+		return new BezierCurve(p1, p2, degree - 1, sampling, random);
+	}
+}
@@ -0,0 +1,84 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a {@link CubicChain}, and evaluating it against the curve.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class CubicChainBenchmark
+{
+	private static final int TIMES = 1024;
+
+	@Param({"3", "10", "20", "40"})
+	private int degree;
+
+	@Param({"0.25", "1.0"})
+	private double tolerance;
+
+	private BezierCurve curve;
+	private CubicChain chain;
+	private double[] ts;
+	private double[] out;
+	private int cursor;
+
+	@Setup
+	public void setUp()
+	{
+		SplittableRandom random = new SplittableRandom(42);
+		curve = new BezierCurve(new Point(100, 100), new Point(900, 500), degree - 1,
+			BezierCurve.Sampling.UNIFORM, random);
+		chain = curve.toCubicChain(tolerance);
+
+		ts = new double[TIMES];
+		for (int i = 0; i < TIMES; i++)
+		{
+			ts[i] = random.nextDouble();
+		}
+		out = new double[2];
+	}
+
+	private double nextTime()
+	{
+		cursor = (cursor + 1) & (TIMES - 1);
+		return ts[cursor];
+	}
+
+	@Benchmark
+	public CubicChain build()
+	{
+		return curve.toCubicChain(tolerance);
+	}
+
+	@Benchmark
+	public double[] solveChain()
+	{
+		chain.solve(nextTime(), out);
+		return out;
+	}
+
+	@Benchmark
+	public double[] solveCurve()
+	{
+		curve.solve(nextTime(), out);
+		return out;
+	}
+}
@@ -0,0 +1,92 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hover and range queries on a {@link CurveIndex} of many curves
+ * scattered over a large canvas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx2g"})
+@State(Scope.Thread)
+public class CurveIndexBenchmark
+{
+	private static final int CANVAS = 20000;
+	private static final int QUERIES = 1024;
+
+	@Param({"10000", "100000"})
+	private int curves;
+
+	private CurveIndex index;
+	private double[] xs;
+	private double[] ys;
+	private int cursor;
+
+	@Setup
+	public void setUp()
+	{
+		SplittableRandom random = new SplittableRandom(42);
+		index = new CurveIndex();
+		for (int i = 0; i < curves; i++)
+		{
+			int x = random.nextInt(CANVAS);
+			int y = random.nextInt(CANVAS);
+			Point p2 = new Point(x + 5 + random.nextInt(200), y + random.nextInt(400) - 200);
+			index.insert(new BezierCurve(new Point(x, y), p2, random.nextInt(8), BezierCurve.Sampling.UNIFORM,
+				random.split()));
+		}
+
+		xs = new double[QUERIES];
+		ys = new double[QUERIES];
+		for (int i = 0; i < QUERIES; i++)
+		{
+			xs[i] = random.nextInt(CANVAS);
+			ys[i] = random.nextInt(CANVAS);
+		}
+	}
+
+	private int next()
+	{
+		cursor = (cursor + 1) & (QUERIES - 1);
+		return cursor;
+	}
+
+	@Benchmark
+	public BezierCurve nearest()
+	{
+		int i = next();
+		return index.nearest(xs[i], ys[i], BezierFrame.HOVER_RADIUS);
+	}
+
+	@Benchmark
+	public List<BezierCurve> queryPoint()
+	{
+		int i = next();
+		return index.query(xs[i], ys[i], 32.0D);
+	}
+
+	@Benchmark
+	public List<BezierCurve> queryRectangle()
+	{
+		int i = next();
+		return index.query(new Rectangle2D.Double(xs[i], ys[i], 200.0D, 200.0D));
+	}
+}
@@ -0,0 +1,81 @@
+package com.vince2678.bezier;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Put with eviction and get on the bounded maps.
+ * <p>
+ * Keys are boxed up front and cycle through twice the capacity, so every
+ * put inserts a key that has already been evicted and evicts another.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class FixedSizeHashMapBenchmark
+{
+	@Param({"200", "10000"})
+	private int capacity;
+
+	@Param({"FixedSizeHashMap", "ConcurrentFixedSizeHashMap"})
+	private String type;
+
+	private Map<Integer, Integer> map;
+	private Integer[] keys;
+	private int putCursor;
+	private int getCursor;
+
+	@Setup
+	public void setUp()
+	{
+		if (type.equals("FixedSizeHashMap"))
+		{
+			map = new FixedSizeHashMap<>(capacity);
+		}
+		else
+		{
+			map = new ConcurrentFixedSizeHashMap<>(capacity);
+		}
+
+		keys = new Integer[2 * capacity];
+		for (int i = 0; i < keys.length; i++)
+		{
+			keys[i] = i;
+		}
+		for (int i = 0; i < capacity; i++)
+		{
+			map.put(keys[i], keys[i]);
+		}
+		putCursor = capacity;
+	}
+
+	@Benchmark
+	public Integer putEvict()
+	{
+		Integer key = keys[putCursor];
+		putCursor = putCursor + 1 < keys.length ? putCursor + 1 : 0;
+		return map.put(key, key);
+	}
+
+	@Benchmark
+	public Integer get()
+	{
+		Integer key = keys[getCursor];
+		getCursor = getCursor + 1 < keys.length ? getCursor + 1 : 0;
+		return map.get(key);
+	}
+}
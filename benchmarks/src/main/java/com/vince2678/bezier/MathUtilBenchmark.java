@@ -0,0 +1,83 @@
+package com.vince2678.bezier;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Binomial coefficients and factorials with warm and cold caches.
+ * <p>
+ * Warm benchmarks cycle through fewer keys than {@link MathUtil#CACHE_CAPACITY},
+ * so after warmup every lookup hits. Cold benchmarks cycle through four
+ * times as many keys as the caches hold, so every lookup misses and
+ * evicts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class MathUtilBenchmark
+{
+	private static final int WARM_KEYS = 16;
+	private static final int COLD_KEYS = 4 * MathUtil.CACHE_CAPACITY;
+
+	/* the first rows past the tables, so the caches are used */
+	private static final int LARGE_ROW = MathUtil.BINOMIAL_TABLE_ROWS;
+	private static final int LARGE_FACTORIAL = MathUtil.MAXIMUM_LONG_FACTORIAL + 1;
+
+	private int cursor;
+
+	private int next(int keys)
+	{
+		cursor = cursor + 1 < keys ? cursor + 1 : 0;
+		return cursor;
+	}
+
+	@Benchmark
+	public int nCkTable()
+	{
+		int i = next(MathUtil.BINOMIAL_TABLE_ROWS * 8);
+		int n = i >> 3;
+		return MathUtil.nCk(n, Math.min(i & 7, n));
+	}
+
+	@Benchmark
+	public double nCkDoubleWarm()
+	{
+		return MathUtil.nCkDouble(LARGE_ROW + next(WARM_KEYS), 5);
+	}
+
+	@Benchmark
+	public double nCkDoubleCold()
+	{
+		return MathUtil.nCkDouble(LARGE_ROW + next(COLD_KEYS), 5);
+	}
+
+	@Benchmark
+	public BigInteger factorialWarm()
+	{
+		return MathUtil.factorial(LARGE_FACTORIAL + next(WARM_KEYS));
+	}
+
+	@Benchmark
+	public BigInteger factorialCold()
+	{
+		return MathUtil.factorial(LARGE_FACTORIAL + next(COLD_KEYS));
+	}
+
+	@Benchmark
+	public double logFactorial()
+	{
+		return MathUtil.logFactorial(LARGE_FACTORIAL + next(COLD_KEYS));
+	}
+}
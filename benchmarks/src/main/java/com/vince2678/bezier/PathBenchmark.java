@@ -0,0 +1,76 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Path generation across degrees, chord lengths and {@link BezierCurve.PathMode}s.
+ * <p>
+ * {@link #generate} measures generating the path itself, bypassing the
+ * curve's path cache; {@link #getPath} and {@link #getPathInto} measure
+ * what callers pay once the path is cached. The cubic chain behind
+ * {@code PIECEWISE_CUBIC} stays cached, so {@link #generate} measures
+ * rasterizing it; building the chain is measured by {@link CubicChainBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class PathBenchmark
+{
+	@Param({"1", "2", "5", "10", "20", "40"})
+	private int degree;
+
+	@Param({"50", "400", "1600"})
+	private int chord;
+
+	@Param({"SAMPLED", "FORWARD_DIFFERENCE", "ADAPTIVE", "CONSTANT_SPEED", "PIECEWISE_CUBIC"})
+	private BezierCurve.PathMode mode;
+
+	private BezierCurve curve;
+	private PathBuffer path;
+
+	@Setup
+	public void setUp()
+	{
+		curve = new BezierCurve(new Point(100, 100), new Point(100 + chord, 100), degree - 1,
+			BezierCurve.Sampling.UNIFORM, new SplittableRandom(42)).withPathMode(mode);
+		path = new PathBuffer();
+	}
+
+	@Benchmark
+	public PathBuffer generate()
+	{
+		path.clear();
+		curve.generatePath(mode, path);
+		return path;
+	}
+
+	@Benchmark
+	public List<Point> getPath()
+	{
+		return curve.getPath();
+	}
+
+	@Benchmark
+	public PathBuffer getPathInto()
+	{
+		curve.getPath(path);
+		return path;
+	}
+}
@@ -0,0 +1,103 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bresenham lines and polyline interpolation, through the
+ * {@link Point} list, {@link PathBuffer} and {@link PointVisitor} APIs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class RasterBenchmark
+{
+	@Param({"16", "256", "2048"})
+	private int length;
+
+	private Point p1;
+	private Point p2;
+
+	/* a sampled curve path spanning length pixels */
+	private List<Point> polyline;
+	private PathBuffer polylineBuffer;
+
+	private PathBuffer out;
+	private Counter counter;
+
+	@Setup
+	public void setUp()
+	{
+		p1 = new Point(0, 0);
+		p2 = new Point(length, length / 3);
+
+		BezierCurve curve = new BezierCurve(p1, p2, 3, BezierCurve.Sampling.UNIFORM, new SplittableRandom(42));
+		polyline = curve.getPath();
+		polylineBuffer = PathBuffer.fromList(polyline);
+
+		out = new PathBuffer();
+		counter = new Counter();
+	}
+
+	@Benchmark
+	public List<Point> bresenhamList()
+	{
+		return PointUtil.bresenhamPath(p1, p2);
+	}
+
+	@Benchmark
+	public PathBuffer bresenhamBuffer()
+	{
+		out.clear();
+		PointUtil.bresenhamPath(p1.x, p1.y, p2.x, p2.y, out);
+		return out;
+	}
+
+	@Benchmark
+	public long bresenhamVisitor()
+	{
+		counter.sum = 0;
+		PointUtil.bresenhamPath(p1.x, p1.y, p2.x, p2.y, counter);
+		return counter.sum;
+	}
+
+	@Benchmark
+	public List<Point> interpolateList()
+	{
+		return PointUtil.interpolatePath(polyline);
+	}
+
+	@Benchmark
+	public PathBuffer interpolateBuffer()
+	{
+		PointUtil.interpolatePath(polylineBuffer, out);
+		return out;
+	}
+
+	private static class Counter implements PointVisitor
+	{
+		private long sum;
+
+		@Override
+		public void visit(int x, int y)
+		{
+			sum += x + y;
+		}
+	}
+}
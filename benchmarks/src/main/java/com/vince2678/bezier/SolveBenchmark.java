@@ -0,0 +1,75 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Point evaluation with each {@link BezierCurve.Evaluator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class SolveBenchmark
+{
+	private static final int TIMES = 1024;
+
+	@Param({"1", "3", "10", "20", "40"})
+	private int degree;
+
+	@Param({"HORNER", "DE_CASTELJAU", "BERNSTEIN"})
+	private BezierCurve.Evaluator evaluator;
+
+	private BezierCurve curve;
+	private double[] ts;
+	private double[] out;
+	private int cursor;
+
+	@Setup
+	public void setUp()
+	{
+		SplittableRandom random = new SplittableRandom(42);
+		curve = new BezierCurve(new Point(100, 100), new Point(900, 500), degree - 1,
+			BezierCurve.Sampling.UNIFORM, random).withEvaluator(evaluator);
+
+		ts = new double[TIMES];
+		for (int i = 0; i < TIMES; i++)
+		{
+			ts[i] = random.nextDouble();
+		}
+		out = new double[2];
+	}
+
+	private double nextTime()
+	{
+		cursor = (cursor + 1) & (TIMES - 1);
+		return ts[cursor];
+	}
+
+	@Benchmark
+	public Point solve()
+	{
+		return curve.solve(nextTime());
+	}
+
+	@Benchmark
+	public double[] solveInto()
+	{
+		curve.solve(nextTime(), out);
+		return out;
+	}
+}
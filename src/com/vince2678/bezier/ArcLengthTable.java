@@ -0,0 +1,165 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/**
+ * A table of cumulative arc length against time for a {@link BezierCurve}.
+ * <p>
+ * The curve is sampled at evenly spaced times in one pass, roughly one
+ * sample per pixel of control polygon length, and the arc length is
+ * approximated by the chords between samples. Distances are mapped back
+ * to times by binary search and linear interpolation between samples.
+ */
+public class ArcLengthTable
+{
+	public static final int MINIMUM_SAMPLES = 16;
+	public static final int MAXIMUM_SAMPLES = 1 << 16;
+
+	private final BezierCurve curve;
+
+	/* lengths[i] is the arc length from t = 0 to t = i / segments */
+	private final double[] lengths;
+	private final int segments;
+
+	public ArcLengthTable(BezierCurve curve)
+	{
+		this(curve, getSegmentCount(curve));
+	}
+
+	/**
+	 * @param curve the curve to measure
+	 * @param segments the number of chords to approximate the curve with
+	 */
+	public ArcLengthTable(BezierCurve curve, int segments)
+	{
+		this.curve = curve;
+		this.segments = Math.max(segments, 1);
+
+		lengths = new double[this.segments + 1];
+
+		double[] out = new double[2];
+		curve.solve(0.0D, out);
+		double prevX = out[0];
+		double prevY = out[1];
+
+		for (int i = 1; i <= this.segments; i++)
+		{
+			curve.solve((double) i / this.segments, out);
+
+			double dX = out[0] - prevX;
+			double dY = out[1] - prevY;
+			lengths[i] = lengths[i - 1] + Math.sqrt(dX * dX + dY * dY);
+
+			prevX = out[0];
+			prevY = out[1];
+		}
+	}
+
+	private static int getSegmentCount(BezierCurve curve)
+	{
+		double polygon = PointUtil.pathLength(curve.getControlPoints());
+		int segments = (int) Math.ceil(polygon);
+
+		return Math.min(Math.max(segments, MINIMUM_SAMPLES), MAXIMUM_SAMPLES);
+	}
+
+	/**
+	 * Get the total arc length of the curve.
+	 * @return the length, in pixels
+	 */
+	public double getLength()
+	{
+		return lengths[segments];
+	}
+
+	/**
+	 * Get the time at which the curve has covered a distance.
+	 * @param distance the arc length from the start of the curve,
+	 *  clamped to [0, {@link #getLength}]
+	 * @return the time, in interval [0.0, 1.0]
+	 */
+	public double getTime(double distance)
+	{
+		if (distance <= 0.0D)
+		{
+			return 0.0D;
+		}
+		else if (distance >= getLength())
+		{
+			return 1.0D;
+		}
+
+		int i = Arrays.binarySearch(lengths, distance);
+		if (i >= 0)
+		{
+			return (double) i / segments;
+		}
+
+		/* distance lies between lengths[i - 1] and lengths[i] */
+		i = -i - 1;
+		return getTime(i, distance);
+	}
+
+	private double getTime(int i, double distance)
+	{
+		double lower = lengths[i - 1];
+		double span = lengths[i] - lower;
+		double fraction = span == 0.0D ? 0.0D : (distance - lower) / span;
+
+		return (i - 1 + fraction) / segments;
+	}
+
+	/**
+	 * Get the point at a distance along the curve, in double precision.
+	 * @param distance the arc length from the start of the curve
+	 * @param out array receiving x in out[0] and y in out[1]
+	 */
+	public void pointAtDistance(double distance, double[] out)
+	{
+		curve.solve(getTime(distance), out);
+	}
+
+	/**
+	 * Write a path with points evenly spaced along the curve into a buffer.
+	 * <p>
+	 * Points are placed every spacing pixels of arc length, rounded the
+	 * same way as {@link BezierCurve#solve(double)}, with consecutive
+	 * duplicates removed. The path always ends at the last control point.
+	 * The distances increase monotonically, so the table is walked once
+	 * instead of searched for every point.
+	 *
+	 * @param spacing the arc length between points, in pixels
+	 * @param path the buffer to write to. It is cleared first.
+	 */
+	public void getConstantSpeedPath(double spacing, PathBuffer path)
+	{
+		if (!(spacing > 0.0D))
+		{
+			throw new IllegalArgumentException("spacing must be positive");
+		}
+
+		path.clear();
+
+		double[] out = new double[2];
+		double length = getLength();
+		int count = (int) Math.floor(length / spacing);
+
+		int i = 1;
+		for (int k = 0; k <= count; k++)
+		{
+			double distance = k * spacing;
+			while (i < segments && lengths[i] < distance)
+			{
+				i++;
+			}
+
+			double t = distance <= 0.0D ? 0.0D : getTime(i, Math.min(distance, length));
+			curve.solve(t, out);
+			path.addDistinct((int) Math.ceil(out[0]), (int) Math.ceil(out[1]));
+		}
+
+		Point end = curve.getControlPoint(curve.getControlPointCount() - 1);
+		path.addDistinct(end.x, end.y);
+	}
+}
@@ -0,0 +1,374 @@
+package com.vince2678.bezier;
+
+import java.util.stream.DoubleStream;
+
+public class BernsteinUtil
+{
+	/**
+	 * The deepest {@link #roots} subdivides, locating each root to within
+	 * 2<sup>-{@value}</sup>.
+	 */
+	public static final int MAXIMUM_ROOT_DEPTH = 40;
+
+	/**
+	 * Whether batch evaluation runs on the Vector API. It does when the
+	 * {@code jdk.incubator.vector} module is present (run with
+	 * {@code --add-modules jdk.incubator.vector}) and the platform has
+	 * vectors of more than one double, unless the
+	 * {@code com.vince2678.bezier.vectorize} system property is false.
+	 */
+	public static final boolean VECTORIZED = isVectorApiAvailable();
+
+	private static boolean isVectorApiAvailable()
+	{
+		if (!Boolean.parseBoolean(System.getProperty("com.vince2678.bezier.vectorize", "true")))
+		{
+			return false;
+		}
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+		{
+			return false;
+		}
+
+		try
+		{
+			return VectorBernstein.isSupported();
+		}
+		catch (LinkageError e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Get the row of binomial coefficients nC0 ... nCn as doubles.
+	 * @param n the row index, in interval [0, infinity)
+	 * @return the coefficients for row n
+	 */
+	public static double[] binomialRow(int n)
+	{
+		double[] row = new double[n + 1];
+		for (int k = 0; k <= n; k++)
+		{
+			row[k] = MathUtil.nCkDouble(n, k);
+		}
+		return row;
+	}
+
+	/**
+	 * Check whether {@link #horner} can evaluate a curve without overflow.
+	 * <p>
+	 * Its partial sums grow up to 2<sup>n</sup> times the largest
+	 * coordinate before being scaled back down, and the binomial row
+	 * itself overflows from about n = 1030, so high degree curves need
+	 * {@link #deCasteljau} instead.
+	 *
+	 * @param xs the x coordinates of the control points
+	 * @param ys the y coordinates of the control points
+	 * @return true if every partial sum stays finite
+	 */
+	public static boolean isHornerStable(double[] xs, double[] ys)
+	{
+		int n = xs.length - 1;
+
+		double magnitude = 1.0D;
+		for (int k = 0; k <= n; k++)
+		{
+			magnitude = Math.max(magnitude, Math.max(Math.abs(xs[k]), Math.abs(ys[k])));
+		}
+
+		/* one spare bit for the rounding in the sums */
+		return Double.isFinite(Math.scalb(magnitude, n + 1));
+	}
+
+	/**
+	 * Get the control points of the derivative of a Bezier curve,
+	 * its hodograph, along one axis.
+	 * <p>
+	 * The derivative of a degree n curve is a degree n - 1 curve with
+	 * control points n * (P<sub>k+1</sub> - P<sub>k</sub>). The
+	 * derivative of a single point is the single point 0.
+	 *
+	 * @param coordinates the coordinates of the control points along one axis
+	 * @return the coordinates of the hodograph's control points
+	 */
+	public static double[] hodograph(double[] coordinates)
+	{
+		int n = coordinates.length - 1;
+		if (n == 0)
+		{
+			return new double[1];
+		}
+
+		double[] derivative = new double[n];
+		for (int k = 0; k < n; k++)
+		{
+			derivative[k] = n * (coordinates[k + 1] - coordinates[k]);
+		}
+		return derivative;
+	}
+
+	/**
+	 * Find the times in [0, 1] at which a polynomial in Bernstein form
+	 * changes sign.
+	 * <p>
+	 * By the variation diminishing property, a polynomial has no more
+	 * roots in an interval than its Bernstein coefficients have sign
+	 * changes. Intervals whose coefficients all have the same sign are
+	 * discarded, and the rest are split in half with de Casteljau's
+	 * algorithm until they are narrower than
+	 * 2<sup>-{@link #MAXIMUM_ROOT_DEPTH}</sup>. A split point where the
+	 * polynomial is exactly zero is a root itself, since neither half
+	 * sees the sign change across it. Roots where the polynomial only
+	 * touches zero without changing sign may be missed.
+	 *
+	 * @param coefficients the Bernstein coefficients
+	 * @return the roots, in increasing order. A root falling on or near
+	 *  a split point may be reported twice.
+	 */
+	public static double[] roots(double[] coefficients)
+	{
+		int len = coefficients.length;
+
+		/*
+		*  levels[d] holds the interval being split at depth d, and
+		*  rights[d] its right half while the left half is searched.
+		*/
+		double[][] levels = new double[MAXIMUM_ROOT_DEPTH + 1][len];
+		double[][] rights = new double[MAXIMUM_ROOT_DEPTH][len];
+		System.arraycopy(coefficients, 0, levels[0], 0, len);
+
+		DoubleStream.Builder roots = DoubleStream.builder();
+		roots(levels, rights, 0, 0.0D, 1.0D, roots);
+
+		return roots.build().toArray();
+	}
+
+	private static void roots(double[][] levels, double[][] rights, int depth, double t0, double t1,
+		DoubleStream.Builder roots)
+	{
+		double[] piece = levels[depth];
+
+		boolean positive = false;
+		boolean negative = false;
+		for (double coefficient: piece)
+		{
+			positive |= coefficient > 0.0D;
+			negative |= coefficient < 0.0D;
+		}
+		if (!positive || !negative)
+		{
+			return;
+		}
+
+		double mid = 0.5D * (t0 + t1);
+		if (depth == MAXIMUM_ROOT_DEPTH)
+		{
+			roots.add(mid);
+			return;
+		}
+
+		int len = piece.length;
+		double[] left = levels[depth + 1];
+		double[] right = rights[depth];
+		System.arraycopy(piece, 0, right, 0, len);
+		for (int r = len - 1; r >= 0; r--)
+		{
+			left[len - 1 - r] = right[0];
+			for (int j = 0; j < r; j++)
+			{
+				right[j] = 0.5D * (right[j] + right[j + 1]);
+			}
+		}
+
+		/* the value at mid is the last coefficient of the left half */
+		boolean zeroAtMid = left[len - 1] == 0.0D;
+
+		roots(levels, rights, depth + 1, t0, mid, roots);
+		if (zeroAtMid)
+		{
+			roots.add(mid);
+		}
+
+		System.arraycopy(right, 0, left, 0, len);
+		roots(levels, rights, depth + 1, mid, t1, roots);
+	}
+
+	/**
+	 * Evaluate a Bezier curve at time t using a Horner scheme
+	 * on the Bernstein basis.
+	 * <p>
+	 * For t &lt;= 0.5 the sum is rewritten as
+	 * (1-t)<sup>n</sup> * sum(nCk * P<sub>k</sub> * u<sup>k</sup>)
+	 * with u = t / (1-t), and symmetrically with u = (1-t) / t
+	 * otherwise, so u never exceeds 1.
+	 *
+	 * @param xs the x coordinates of the control points
+	 * @param ys the y coordinates of the control points
+	 * @param binomials the binomial row for the curve's degree
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @param out array receiving x in out[0] and y in out[1]
+	 */
+	public static void horner(double[] xs, double[] ys, double[] binomials, double t, double[] out)
+	{
+		int n = xs.length - 1;
+		double s = 1.0D - t;
+
+		double x;
+		double y;
+		double scale = 1.0D;
+
+		if (t <= 0.5D)
+		{
+			double u = t / s;
+			x = binomials[n] * xs[n];
+			y = binomials[n] * ys[n];
+			for (int k = n - 1; k >= 0; k--)
+			{
+				x = x * u + binomials[k] * xs[k];
+				y = y * u + binomials[k] * ys[k];
+				scale *= s;
+			}
+		}
+		else
+		{
+			double u = s / t;
+			x = binomials[0] * xs[0];
+			y = binomials[0] * ys[0];
+			for (int k = 1; k <= n; k++)
+			{
+				x = x * u + binomials[k] * xs[k];
+				y = y * u + binomials[k] * ys[k];
+				scale *= t;
+			}
+		}
+
+		out[0] = x * scale;
+		out[1] = y * scale;
+	}
+
+	/**
+	 * Get coordinates scaled by their binomial coefficients, the form
+	 * {@link #horner(double[], double[], double[], double[], double[], int) batch Horner}
+	 * evaluation takes them in.
+	 * @param coordinates the x or y coordinates of the control points
+	 * @param binomials the binomial row for the curve's degree
+	 * @return nCk * coordinates[k] for each k
+	 */
+	public static double[] weight(double[] coordinates, double[] binomials)
+	{
+		double[] weighted = new double[coordinates.length];
+		for (int k = 0; k < coordinates.length; k++)
+		{
+			weighted[k] = binomials[k] * coordinates[k];
+		}
+		return weighted;
+	}
+
+	/**
+	 * Evaluate a Bezier curve at many times using the Horner scheme of
+	 * {@link #horner(double[], double[], double[], double, double[])}.
+	 * <p>
+	 * The control points are passed already {@link #weight weighted}, so
+	 * callers evaluating a curve repeatedly weight them once. When
+	 * {@link #VECTORIZED}, the times are evaluated a vector of lanes at a
+	 * time, and only the remainder one by one. The results are the same
+	 * either way, and nothing is allocated.
+	 *
+	 * @param cxs the x coordinates of the control points, weighted
+	 * @param cys the y coordinates of the control points, weighted
+	 * @param ts the times, each in interval [0.0, 1.0]
+	 * @param outX array receiving the x coordinate for each time
+	 * @param outY array receiving the y coordinate for each time
+	 * @param count the number of times to evaluate, from index 0
+	 */
+	public static void horner(double[] cxs, double[] cys, double[] ts, double[] outX, double[] outY, int count)
+	{
+		int i = 0;
+		if (VECTORIZED)
+		{
+			i = VectorBernstein.horner(cxs, cys, ts, outX, outY, count);
+		}
+
+		for (; i < count; i++)
+		{
+			horner(cxs, cys, ts[i], outX, outY, i);
+		}
+	}
+
+	/**
+	 * The scalar Horner scheme on weighted control points, performing
+	 * the same operations as the unweighted one.
+	 */
+	private static void horner(double[] cxs, double[] cys, double t, double[] outX, double[] outY, int i)
+	{
+		int n = cxs.length - 1;
+		double s = 1.0D - t;
+
+		double x;
+		double y;
+		double scale = 1.0D;
+
+		if (t <= 0.5D)
+		{
+			double u = t / s;
+			x = cxs[n];
+			y = cys[n];
+			for (int k = n - 1; k >= 0; k--)
+			{
+				x = x * u + cxs[k];
+				y = y * u + cys[k];
+				scale *= s;
+			}
+		}
+		else
+		{
+			double u = s / t;
+			x = cxs[0];
+			y = cys[0];
+			for (int k = 1; k <= n; k++)
+			{
+				x = x * u + cxs[k];
+				y = y * u + cys[k];
+				scale *= t;
+			}
+		}
+
+		outX[i] = x * scale;
+		outY[i] = y * scale;
+	}
+
+	/**
+	 * Evaluate a Bezier curve at time t using de Casteljau's algorithm.
+	 * <p>
+	 * This is O(n<sup>2</sup>) but only ever forms convex combinations
+	 * of the control points, so it is the most numerically stable choice
+	 * for high degree curves.
+	 *
+	 * @param xs the x coordinates of the control points
+	 * @param ys the y coordinates of the control points
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @param out array receiving x in out[0] and y in out[1]
+	 * @param scratch work array of at least 2 * xs.length elements
+	 */
+	public static void deCasteljau(double[] xs, double[] ys, double t, double[] out, double[] scratch)
+	{
+		int len = xs.length;
+		double s = 1.0D - t;
+
+		System.arraycopy(xs, 0, scratch, 0, len);
+		System.arraycopy(ys, 0, scratch, len, len);
+
+		for (int r = len - 1; r > 0; r--)
+		{
+			for (int i = 0; i < r; i++)
+			{
+				scratch[i] = s * scratch[i] + t * scratch[i + 1];
+				scratch[len + i] = s * scratch[len + i] + t * scratch[len + i + 1];
+			}
+		}
+
+		out[0] = scratch[0];
+		out[1] = scratch[len];
+	}
+}
@@ -2,170 +2,1728 @@ package com.vince2678.bezier;
 
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.Getter;
 
-@Getter
+/**
+ * An immutable Bezier curve with randomly picked control points.
+ * <p>
+ * Results derived from the curve, such as its paths and arc length,
+ * are computed on first use and memoized. Curves are safe to share
+ * between threads.
+ */
 public class BezierCurve
 {
 	public static final BigDecimal MAXIMUM_TIMESTEP = new BigDecimal("0.32");
 	public static final int LENGTH_DIVISOR_INCREMENT = 50;
 	public static final MathContext DECIMAL_CONTEXT = new MathContext(1, RoundingMode.HALF_EVEN);
 
-	private List<Point> controlPoints;
-	private Rectangle bounds;
+	/**
+	 * The algorithm used to evaluate points on the curve.
+	 */
+	public enum Evaluator
+	{
+		/**
+		 * Sum the Bernstein polynomials term by term, using
+		 * {@link MathUtil#nCkDouble} and {@link Math#pow}.
+		 */
+		BERNSTEIN,
+		/**
+		 * Horner scheme on the Bernstein basis. O(n) per point,
+		 * no pow calls and no cache lookups.
+		 * <p>
+		 * Its intermediate sums overflow for curves of degree around
+		 * 1000 and above, see {@link BernsteinUtil#isHornerStable}.
+		 * Such curves are evaluated with {@link #DE_CASTELJAU} instead,
+		 * and default to it.
+		 */
+		HORNER,
+		/**
+		 * de Casteljau's algorithm. O(n<sup>2</sup>) per point, but
+		 * the most numerically stable for high degree curves.
+		 */
+		DE_CASTELJAU,
+	}
+
+	/**
+	 * The algorithm used by {@link #getPath} to cover the curve.
+	 */
+	public enum PathMode
+	{
+		/**
+		 * Solve the curve from scratch at every time step.
+		 */
+		SAMPLED,
+		/**
+		 * Advance the curve between time steps with forward differences,
+		 * costing n additions per point instead of a full evaluation.
+		 * <p>
+		 * Forward differences accumulate rounding error, so the
+		 * difference table is periodically re-anchored from exact
+		 * evaluations. See {@link #getAnchorInterval} for the drift bound.
+		 */
+		FORWARD_DIFFERENCE,
+		/**
+		 * Recursively subdivide the control polygon until each piece is
+		 * within {@link #FLATNESS_TOLERANCE} pixels of its chord, then
+		 * rasterize the chords. Produces a gap-free path with one point
+		 * per pixel, regardless of the chord length of the curve.
+		 */
+		ADAPTIVE,
+		/**
+		 * Place points one pixel of arc length apart, using the curve's
+		 * {@link ArcLengthTable}. Samples are evenly spaced in distance
+		 * rather than in time.
+		 */
+		CONSTANT_SPEED,
+		/**
+		 * Approximate the curve by its {@link #getCubicChain cubic chain},
+		 * then subdivide and rasterize each cubic like {@link #ADAPTIVE}.
+		 * Once the chain is built, every step costs the same whatever the
+		 * degree of the curve.
+		 */
+		PIECEWISE_CUBIC,
+	}
+
+	/**
+	 * The strategy used to pick control points within the bounds.
+	 */
+	public enum Sampling
+	{
+		/**
+		 * Distinct points drawn uniformly at random.
+		 * See {@link PointUtil#sampleDistinctPoints}.
+		 */
+		UNIFORM,
+		/**
+		 * Distinct points spread evenly by a Halton sequence.
+		 * See {@link PointUtil#haltonPoints}.
+		 */
+		HALTON,
+	}
+
+	/**
+	 * The maximum distance, in pixels, a forward differenced point
+	 * may drift from the exact point between re-anchors.
+	 */
+	public static final double FORWARD_DIFFERENCE_DRIFT = 0.25D;
+
+	/**
+	 * The maximum distance, in pixels, of a control point from the chord
+	 * of a subdivided piece for the piece to be considered flat.
+	 */
+	public static final double FLATNESS_TOLERANCE = 0.5D;
+
+	/**
+	 * The maximum subdivision depth for {@link PathMode#ADAPTIVE}.
+	 */
+	public static final int MAXIMUM_SUBDIVISION_DEPTH = 24;
+
+	/**
+	 * The number of curves below which a batch is no longer split
+	 * across worker threads.
+	 */
+	public static final int BATCH_THRESHOLD = 16;
+
+	/**
+	 * The tolerance, in pixels, of the cubic chain used by
+	 * {@link PathMode#PIECEWISE_CUBIC}.
+	 */
+	public static final double CUBIC_TOLERANCE = 0.25D;
+
+	/**
+	 * The golden section steps {@link #distanceTo} takes to refine the
+	 * nearest point, each shrinking the interval by a factor of 0.618.
+	 */
+	public static final int DISTANCE_ITERATIONS = 40;
+
+	private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[64]);
+
+	/* never exposed: callers get copies of the points */
+	private final List<Point> controlPoints;
+	private final Rectangle bounds;
+
+	@Getter
+	private final Evaluator evaluator;
+
+	@Getter
+	private final PathMode pathMode;
+
+	private final double[] xs;
+	private final double[] ys;
+	private final double[] binomials;
+
+	/* control points scaled by their binomials, for batch Horner evaluation */
+	private final double[] weightedXs;
+	private final double[] weightedYs;
+
+	/* control points of the derivative, and their binomial row */
+	private final double[] derivativeXs;
+	private final double[] derivativeYs;
+	private final double[] derivativeBinomials;
+
+	/* false if the Horner scheme overflows, and de Casteljau is used in its place */
+	private final boolean hornerStable;
+	private final boolean derivativeHornerStable;
+
+	/* the bounds of the control points, which contain the curve's convex hull */
+	private final Rectangle2D.Double hullBounds;
+
+	private volatile Rectangle2D.Double tightBounds;
+	private volatile ArcLengthTable arcLengthTable;
+	private volatile CubicChain cubicChain;
+
+	/* t, x, y of each vertex of the flattened curve */
+	private volatile double[] polyline;
+	private volatile Rectangle pathBounds;
+
+	/* memoized paths, indexed by PathMode ordinal */
+	private final AtomicReferenceArray<PathBuffer> paths;
+
+	public BezierCurve(Point p1, Point p2, int controls)
+	{
+		this(p1, p2, controls, Sampling.UNIFORM);
+	}
+
+	public BezierCurve(Point p1, Point p2, int controls, Sampling sampling)
+	{
+		this(p1, p2, controls, sampling, ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Create a curve, drawing its bounds and control points from random.
+	 * <p>
+	 * Passing a seeded generator, such as a {@link SplittableRandom},
+	 * makes the curve reproducible.
+	 * @param p1 the first endpoint
+	 * @param p2 the second endpoint
+	 * @param controls the number of control points
+	 * @param sampling the strategy used to pick control points
+	 * @param random the source of randomness
+	 */
+	public BezierCurve(Point p1, Point p2, int controls, Sampling sampling, RandomGenerator random)
+	{
+		this(p1, p2, getBoundingRectangle(p1, p2, random), controls, sampling, random);
+	}
+
+	private BezierCurve(Point p1, Point p2, Rectangle bounds, int controls, Sampling sampling, RandomGenerator random)
+	{
+		long start = CurveMetrics.start();
+		CurveEvents.ConstructionEvent event = new CurveEvents.ConstructionEvent();
+		event.begin();
+
+		this.bounds = bounds;
+		this.pathMode = PathMode.SAMPLED;
+		this.paths = new AtomicReferenceArray<>(PathMode.values().length);
+
+		p1 = p1.getLocation();
+		p2 = p2.getLocation();
+
+		List<Point> controlPoints = new ArrayList<>();
+		controlPoints.add(p1);
+
+		/*
+		*  default to straight line if there's
+		*  no area to unique control points from.
+		*/
+		int area = bounds.width * bounds.height;
+		if (area >= controls + distance(p1, p2))
+		{
+			controlPoints.addAll(getControls(bounds, controls, sampling, random, p1, p2));
+		}
+
+		controlPoints.add(p2);
+
+		int len = controlPoints.size();
+		xs = new double[len];
+		ys = new double[len];
+		for (int k = 0; k < len; k++)
+		{
+			xs[k] = controlPoints.get(k).getX();
+			ys[k] = controlPoints.get(k).getY();
+		}
+		binomials = BernsteinUtil.binomialRow(len - 1);
+		weightedXs = BernsteinUtil.weight(xs, binomials);
+		weightedYs = BernsteinUtil.weight(ys, binomials);
+		hornerStable = BernsteinUtil.isHornerStable(xs, ys);
+		evaluator = hornerStable ? Evaluator.HORNER : Evaluator.DE_CASTELJAU;
+
+		derivativeXs = BernsteinUtil.hodograph(xs);
+		derivativeYs = BernsteinUtil.hodograph(ys);
+		derivativeBinomials = BernsteinUtil.binomialRow(derivativeXs.length - 1);
+		derivativeHornerStable = BernsteinUtil.isHornerStable(derivativeXs, derivativeYs);
+		hullBounds = getBounds(xs, ys, xs.length);
+
+		this.controlPoints = Collections.unmodifiableList(controlPoints);
+
+		CurveMetrics.recordConstruction(start);
+		if (event.shouldCommit())
+		{
+			describe(event);
+			event.sampling = sampling.name();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Create a copy of a curve with a different evaluator or path mode.
+	 * <p>
+	 * The immutable control point data is shared. Memoized paths are
+	 * shared too if the evaluator is unchanged, since they only depend
+	 * on it and the control points. The path bounds also depend on the
+	 * path mode, so they are only shared if that is unchanged as well.
+	 */
+	private BezierCurve(BezierCurve curve, Evaluator evaluator, PathMode pathMode)
+	{
+		this.controlPoints = curve.controlPoints;
+		this.bounds = curve.bounds;
+		this.evaluator = evaluator;
+		this.pathMode = pathMode;
+		this.xs = curve.xs;
+		this.ys = curve.ys;
+		this.binomials = curve.binomials;
+		this.weightedXs = curve.weightedXs;
+		this.weightedYs = curve.weightedYs;
+		this.derivativeXs = curve.derivativeXs;
+		this.derivativeYs = curve.derivativeYs;
+		this.derivativeBinomials = curve.derivativeBinomials;
+		this.hornerStable = curve.hornerStable;
+		this.derivativeHornerStable = curve.derivativeHornerStable;
+		this.hullBounds = curve.hullBounds;
+
+		if (evaluator == curve.evaluator)
+		{
+			this.paths = curve.paths;
+			this.arcLengthTable = curve.arcLengthTable;
+			this.cubicChain = curve.cubicChain;
+			this.tightBounds = curve.tightBounds;
+			this.polyline = curve.polyline;
+			if (pathMode == curve.pathMode)
+			{
+				this.pathBounds = curve.pathBounds;
+			}
+		}
+		else
+		{
+			this.paths = new AtomicReferenceArray<>(PathMode.values().length);
+		}
+	}
+
+	/**
+	 * Get a copy of this curve evaluated with a different algorithm.
+	 * @param evaluator the algorithm used to evaluate points
+	 * @return the curve
+	 */
+	public BezierCurve withEvaluator(Evaluator evaluator)
+	{
+		if (evaluator == this.evaluator)
+		{
+			return this;
+		}
+		return new BezierCurve(this, evaluator, pathMode);
+	}
+
+	/**
+	 * Get a copy of this curve whose {@link #getPath()} uses a different algorithm.
+	 * @param pathMode the algorithm used to generate the path
+	 * @return the curve
+	 */
+	public BezierCurve withPathMode(PathMode pathMode)
+	{
+		if (pathMode == this.pathMode)
+		{
+			return this;
+		}
+		return new BezierCurve(this, evaluator, pathMode);
+	}
+
+	/**
+	 * Get the control points of the curve, including both endpoints.
+	 * @return an unmodifiable list of copies of the points
+	 */
+	public List<Point> getControlPoints()
+	{
+		List<Point> points = new ArrayList<>(controlPoints.size());
+		for (Point p: controlPoints)
+		{
+			points.add(p.getLocation());
+		}
+		return Collections.unmodifiableList(points);
+	}
+
+	/**
+	 * Get a control point of the curve.
+	 * @param i the index, where 0 is the first endpoint
+	 * @return a copy of the point
+	 */
+	public Point getControlPoint(int i)
+	{
+		return controlPoints.get(i).getLocation();
+	}
+
+	/**
+	 * Get the number of control points, including both endpoints.
+	 * @return the number of control points
+	 */
+	public int getControlPointCount()
+	{
+		return controlPoints.size();
+	}
+
+	/**
+	 * Get the rectangle the control points were picked from.
+	 * <p>
+	 * This is not the extent of the curve, see {@link #getTightBounds}.
+	 * @return a copy of the rectangle
+	 */
+	public Rectangle getBounds()
+	{
+		return new Rectangle(bounds);
+	}
+
+	/**
+	 * Get the bounding box of the control points.
+	 * <p>
+	 * The curve lies in the convex hull of its control points, so this
+	 * contains the curve. It costs nothing to get, but can be much larger
+	 * than the curve for high degrees.
+	 * @return a copy of the bounds
+	 */
+	public Rectangle2D.Double getHullBounds()
+	{
+		return (Rectangle2D.Double) hullBounds.clone();
+	}
+
+	/**
+	 * Get the smallest box containing the curve, computed on first use.
+	 * <p>
+	 * Each coordinate is extreme either at an endpoint or where its
+	 * derivative is zero, so the curve is evaluated at the roots of
+	 * the derivative, found with {@link BernsteinUtil#roots}, and at
+	 * both ends.
+	 * @return a copy of the bounds
+	 */
+	public Rectangle2D.Double getTightBounds()
+	{
+		Rectangle2D.Double rectangle = tightBounds;
+		if (rectangle == null)
+		{
+			/* building twice under a race is harmless, the bounds are equal */
+			double[] xRoots = BernsteinUtil.roots(derivativeXs);
+			double[] yRoots = BernsteinUtil.roots(derivativeYs);
+
+			int count = xRoots.length + yRoots.length + 2;
+			double[] extremaXs = new double[count];
+			double[] extremaYs = new double[count];
+			double[] out = new double[2];
+
+			extremaXs[0] = xs[0];
+			extremaYs[0] = ys[0];
+			extremaXs[1] = xs[xs.length - 1];
+			extremaYs[1] = ys[ys.length - 1];
+
+			int i = 2;
+			for (double t: xRoots)
+			{
+				solve(t, out);
+				extremaXs[i] = out[0];
+				extremaYs[i] = out[1];
+				i++;
+			}
+			for (double t: yRoots)
+			{
+				solve(t, out);
+				extremaXs[i] = out[0];
+				extremaYs[i] = out[1];
+				i++;
+			}
+
+			rectangle = getBounds(extremaXs, extremaYs, count);
+			tightBounds = rectangle;
+		}
+		return (Rectangle2D.Double) rectangle.clone();
+	}
+
+	private static Rectangle2D.Double getBounds(double[] xs, double[] ys, int len)
+	{
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < len; i++)
+		{
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Check whether the curve may intersect a rectangle, for culling.
+	 * <p>
+	 * Like {@link java.awt.Shape#intersects(Rectangle2D)} this is
+	 * conservative: it tests the {@link #getTightBounds tight bounds},
+	 * so it may return true for a rectangle the curve passes near but
+	 * never enters. The {@link #getHullBounds hull bounds} are tested
+	 * first, so rectangles far from the curve are rejected, and rectangles
+	 * containing all control points accepted, without computing the
+	 * tight bounds.
+	 *
+	 * @param area the rectangle, in the curve's coordinates
+	 * @return false if the curve is certainly outside the rectangle
+	 */
+	public boolean intersects(Rectangle2D area)
+	{
+		if (!intersects(area, hullBounds))
+		{
+			return false;
+		}
+		else if (area.contains(hullBounds))
+		{
+			return true;
+		}
+		return intersects(area, getTightBounds());
+	}
+
+	/**
+	 * Check whether the curve enters a rectangle.
+	 * <p>
+	 * Unlike {@link #intersects(Rectangle2D)} this follows the curve
+	 * itself, flattened to within {@link #FLATNESS_TOLERANCE} pixels, so
+	 * it is only conservative by that tolerance.
+	 *
+	 * @param area the rectangle, in the curve's coordinates
+	 * @return true if the curve passes through the rectangle
+	 */
+	public boolean passesThrough(Rectangle2D area)
+	{
+		if (!intersects(area))
+		{
+			return false;
+		}
+
+		double[] vertices = getPolyline();
+		for (int i = 3; i < vertices.length; i += 3)
+		{
+			if (area.intersectsLine(vertices[i - 2], vertices[i - 1], vertices[i + 1], vertices[i + 2]))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Build and memoize the tight bounds and the flattened curve that
+	 * {@link #intersects}, {@link #passesThrough} and {@link #distanceTo}
+	 * use, so hit-testing on another thread doesn't pay for them.
+	 */
+	public void prepareHitTesting()
+	{
+		getTightBounds();
+		getPolyline();
+	}
+
+	/**
+	 * Get the distance from a point to the nearest point on the curve.
+	 * <p>
+	 * The nearest segment of the flattened curve is found first, then
+	 * the time of the nearest point is refined on the curve itself by a
+	 * golden section search around that segment. The flattened curve is
+	 * built on the first call, the first {@link #passesThrough} or
+	 * {@link #prepareHitTesting}, and memoized.
+	 *
+	 * @param x the x coordinate of the point
+	 * @param y the y coordinate of the point
+	 * @return the distance, in pixels
+	 */
+	public double distanceTo(double x, double y)
+	{
+		double[] vertices = getPolyline();
+		int count = vertices.length / 3;
+
+		int nearest = 0;
+		double nearestDistance = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < count - 1; i++)
+		{
+			int v = 3 * i;
+			double distance = Line2D.ptSegDistSq(vertices[v + 1], vertices[v + 2], vertices[v + 4], vertices[v + 5], x, y);
+			if (distance < nearestDistance)
+			{
+				nearest = i;
+				nearestDistance = distance;
+			}
+		}
+
+		/* the nearest point may lie just past either end of the nearest segment */
+		double lower = vertices[3 * Math.max(nearest - 1, 0)];
+		double upper = vertices[3 * Math.min(nearest + 2, count - 1)];
+
+		double[] out = new double[2];
+		double best = Math.min(squaredDistance(vertices[3 * nearest], x, y, out),
+			squaredDistance(vertices[3 * nearest + 3], x, y, out));
+
+		double ratio = 0.5D * (Math.sqrt(5.0D) - 1.0D);
+		double a = upper - ratio * (upper - lower);
+		double b = lower + ratio * (upper - lower);
+		double fa = squaredDistance(a, x, y, out);
+		double fb = squaredDistance(b, x, y, out);
+		for (int i = 0; i < DISTANCE_ITERATIONS; i++)
+		{
+			if (fa < fb)
+			{
+				upper = b;
+				b = a;
+				fb = fa;
+				a = upper - ratio * (upper - lower);
+				fa = squaredDistance(a, x, y, out);
+			}
+			else
+			{
+				lower = a;
+				a = b;
+				fa = fb;
+				b = lower + ratio * (upper - lower);
+				fb = squaredDistance(b, x, y, out);
+			}
+		}
+
+		return Math.sqrt(Math.min(best, Math.min(fa, fb)));
+	}
+
+	private double squaredDistance(double t, double x, double y, double[] out)
+	{
+		solve(t, out);
+		double dX = out[0] - x;
+		double dY = out[1] - y;
+		return dX * dX + dY * dY;
+	}
+
+	/**
+	 * Get the curve flattened to within {@link #FLATNESS_TOLERANCE} pixels,
+	 * building it on first use.
+	 * @return the time, x and y of each vertex, in order
+	 */
+	private double[] getPolyline()
+	{
+		double[] vertices = polyline;
+		if (vertices == null)
+		{
+			int len = xs.length;
+			double[][] levels = new double[MAXIMUM_SUBDIVISION_DEPTH + 1][2 * len];
+			double[][] rights = new double[MAXIMUM_SUBDIVISION_DEPTH][2 * len];
+
+			System.arraycopy(xs, 0, levels[0], 0, len);
+			System.arraycopy(ys, 0, levels[0], len, len);
+
+			DoubleStream.Builder builder = DoubleStream.builder();
+			builder.add(0.0D).add(xs[0]).add(ys[0]);
+			flatten(levels, rights, 0, len, 0.0D, 1.0D, builder);
+
+			/* building twice under a race is harmless, the polylines are equal */
+			vertices = builder.build().toArray();
+			polyline = vertices;
+		}
+		return vertices;
+	}
+
+	private static void flatten(double[][] levels, double[][] rights, int depth, int len, double t0, double t1,
+		DoubleStream.Builder builder)
+	{
+		double[] piece = levels[depth];
+
+		if (depth == MAXIMUM_SUBDIVISION_DEPTH || isFlat(piece, len))
+		{
+			builder.add(t1).add(piece[len - 1]).add(piece[2 * len - 1]);
+			return;
+		}
+
+		double mid = 0.5D * (t0 + t1);
+		double[] left = levels[depth + 1];
+		double[] right = rights[depth];
+		split(piece, len, left, right);
+
+		flatten(levels, rights, depth + 1, len, t0, mid, builder);
+
+		System.arraycopy(right, 0, left, 0, 2 * len);
+		flatten(levels, rights, depth + 1, len, mid, t1, builder);
+	}
+
+	/**
+	 * Check whether two rectangles intersect, counting touching edges
+	 * and degenerate rectangles, unlike {@link Rectangle2D#intersects}.
+	 */
+	private static boolean intersects(Rectangle2D area, Rectangle2D bounds)
+	{
+		return bounds.getMaxX() >= area.getMinX() && bounds.getMinX() <= area.getMaxX()
+			&& bounds.getMaxY() >= area.getMinY() && bounds.getMinY() <= area.getMaxY();
+	}
+
+	/**
+	 * Get the point on the curve at the time t.
+	 * <p>
+	 * <br />
+	 *  The point is the sum of the control points weighted by the
+	 *  Bernstein polynomials of the curve's degree n:
+	 * <br />
+	 *  B(t) = sum(nCk * t<sup>k</sup> * (1-t)<sup>n-k</sup> * P<sub>k</sub>, k = 0..n)
+	 * <p>
+	 *  It is evaluated with the curve's {@link #getEvaluator evaluator},
+	 *  by default the scaled Horner scheme, or de Casteljau's algorithm
+	 *  for degrees the Horner scheme overflows at. See {@link Evaluator}.
+	 *  The coordinates are rounded up to whole pixels.
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @return the point on the curve
+	 */
+	public Point solve(double t)
+	{
+		return solve(t, evaluator);
+	}
+
+	/**
+	 * Get the point on the curve at the time t.
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @param evaluator the algorithm used to evaluate the point
+	 * @return the point on the curve
+	 */
+	public Point solve(double t, Evaluator evaluator)
+	{
+		double[] out = new double[2];
+		solve(t, evaluator, out);
+
+		return new Point((int) Math.ceil(out[0]), (int) Math.ceil(out[1]));
+	}
+
+	/**
+	 * Get the point on the curve at the time t in double precision.
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @return the point on the curve
+	 */
+	public Point2D.Double solvePrecise(double t)
+	{
+		double[] out = new double[2];
+		solve(t, evaluator, out);
+
+		return new Point2D.Double(out[0], out[1]);
+	}
+
+	/**
+	 * Get the point on the curve at the time t in double precision,
+	 * without allocating.
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @param out array receiving x in out[0] and y in out[1]
+	 */
+	public void solve(double t, double[] out)
+	{
+		solve(t, evaluator, out);
+	}
+
+	/**
+	 * Get the point on the curve at the time t in double precision,
+	 * without allocating.
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @param evaluator the algorithm used to evaluate the point
+	 * @param out array receiving x in out[0] and y in out[1]
+	 */
+	public void solve(double t, Evaluator evaluator, double[] out)
+	{
+		switch (evaluator)
+		{
+			case HORNER:
+				if (hornerStable)
+				{
+					BernsteinUtil.horner(xs, ys, binomials, t, out);
+					break;
+				}
+				/* falls through */
+			case DE_CASTELJAU:
+				BernsteinUtil.deCasteljau(xs, ys, t, out, getScratch(2 * xs.length));
+				break;
+			default:
+				solveBernstein(t, out);
+				break;
+		}
+	}
+
+	/**
+	 * Get the points on the curve at many times in double precision.
+	 * <p>
+	 * With the {@link Evaluator#HORNER HORNER} evaluator, on curves it
+	 * can evaluate, this goes through
+	 * {@link BernsteinUtil#horner(double[], double[], double[], double[], double[], int)}
+	 * on control points weighted once per curve, which uses the Vector API
+	 * where available.
+	 *
+	 * @param ts the times, each in interval [0.0, 1.0]
+	 * @param outX array receiving the x coordinate for each time
+	 * @param outY array receiving the y coordinate for each time
+	 * @param count the number of times to evaluate, from index 0
+	 */
+	public void solve(double[] ts, double[] outX, double[] outY, int count)
+	{
+		if (evaluator == Evaluator.HORNER && hornerStable)
+		{
+			BernsteinUtil.horner(weightedXs, weightedYs, ts, outX, outY, count);
+			return;
+		}
+
+		double[] out = new double[2];
+		for (int i = 0; i < count; i++)
+		{
+			solve(ts[i], evaluator, out);
+			outX[i] = out[0];
+			outY[i] = out[1];
+		}
+	}
+
+	/**
+	 * Get the derivative of the curve at the time t, the velocity
+	 * dB/dt, in double precision.
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @param out array receiving dx/dt in out[0] and dy/dt in out[1]
+	 */
+	public void derivative(double t, double[] out)
+	{
+		if (derivativeHornerStable)
+		{
+			BernsteinUtil.horner(derivativeXs, derivativeYs, derivativeBinomials, t, out);
+		}
+		else
+		{
+			BernsteinUtil.deCasteljau(derivativeXs, derivativeYs, t, out, getScratch(2 * derivativeXs.length));
+		}
+	}
+
+	private void solveBernstein(double t, double[] out)
+	{
+		double x = 0;
+		double y = 0;
+
+		int len = controlPoints.size();
+		int n = len - 1;
+		for (int k = 0; k < len; k++)
+		{
+			Point p = controlPoints.get(k);
+
+			double fac = MathUtil.nCkDouble(n, k);
+			double tK = Math.pow(t, k);
+			double tCNK = Math.pow((1.0D - t), n - k);
+
+			double intermediate = fac * tK * tCNK;
+
+			x += intermediate * p.getX();
+			y += intermediate * p.getY();
+		}
+
+		out[0] = x;
+		out[1] = y;
+	}
+
+	private static double[] getScratch(int size)
+	{
+		double[] scratch = SCRATCH.get();
+		if (scratch.length < size)
+		{
+			scratch = new double[size];
+			SCRATCH.set(scratch);
+		}
+		return scratch;
+	}
+
+	/**
+	 * Get a time step based on the length of the line.
+	 * <br />
+	 * <p>
+	 * The number of times the length can be divided by
+	 * {@link #LENGTH_DIVISOR_INCREMENT} determines how small the
+	 * time step will be.
+	 * <br />
+	 * The greater the length, the smaller the time step, and the
+	 * finer the resulting curve.
+	 *
+	 * @param p1 an endpoint of the line
+	 * @param p2 an endpoint of the line
+	 * @return return a time step between 0 and {@link #MAXIMUM_TIMESTEP}
+	 */
+	private static BigDecimal getTimeStep(Point p1, Point p2)
+	{
+		/* scale increment to line length, down to a minimum of 0.01 */
+		int length = (int) Math.ceil(distance(p1, p2));
+
+		int result = Integer.MAX_VALUE;
+		int divisor = 0;
+		int count = 0;
+
+		while (result > 0)
+		{
+			divisor += LENGTH_DIVISOR_INCREMENT;
+			count += 1;
+			result = length / divisor;
+		}
+
+		return MAXIMUM_TIMESTEP.divide(new BigDecimal(count), DECIMAL_CONTEXT);
+	}
+
+	/**
+	 * Get the number of time steps strictly inside (0, 1) for an increment.
+	 * @param increment the time step
+	 * @return the number of k &gt;= 1 with k * increment &lt; 1
+	 */
+	private static int getSampleCount(BigDecimal increment)
+	{
+		return BigDecimal.ONE.divide(increment, 0, RoundingMode.CEILING).intValue() - 1;
+	}
+
+	/**
+	 * Get a path covering the curve.
+	 * <p>
+	 * Use this instead of the {@link #points point stream} when
+	 * the whole path is needed.
+	 * <p>
+	 * The path is generated with the curve's {@link #getPathMode path mode}.
+	 *
+	 * @return the path
+	 */
+	public List<Point> getPath()
+	{
+		return getPath(pathMode);
+	}
+
+	/**
+	 * Get a path covering the curve.
+	 * @param mode the algorithm used to generate the path
+	 * @return the path
+	 */
+	public List<Point> getPath(PathMode mode)
+	{
+		long start = CurveMetrics.start();
+		List<Point> path = getCachedPath(mode).toList();
+		CurveMetrics.recordPath(start);
+
+		return path;
+	}
+
+	/**
+	 * Get a lazy, splittable sequence of the points on the curve, packed
+	 * with {@link PathBuffer#pack}.
+	 * <p>
+	 * The points are those of {@link PathMode#SAMPLED}, with consecutive
+	 * duplicates removed, but are only evaluated as they are consumed.
+	 * @return the spliterator
+	 */
+	public Spliterator.OfLong pointSpliterator()
+	{
+		Point p1 = controlPoints.get(0);
+		Point p2 = controlPoints.get(controlPoints.size() - 1);
+		BigDecimal increment = getTimeStep(p1, p2);
+
+		return new PointSpliterator(this, increment.unscaledValue().longValueExact(),
+			Math.pow(10, increment.scale()), getSampleCount(increment));
+	}
+
+	/**
+	 * Get a lazy iterator over the points on the curve, packed with
+	 * {@link PathBuffer#pack}.
+	 * @return the iterator
+	 * @see #pointSpliterator
+	 */
+	public PrimitiveIterator.OfLong pointIterator()
+	{
+		return Spliterators.iterator(pointSpliterator());
+	}
+
+	/**
+	 * Get a lazy stream of the points on the curve, packed with
+	 * {@link PathBuffer#pack}.
+	 * @param parallel whether the stream is parallel
+	 * @return the stream
+	 * @see #pointSpliterator
+	 */
+	public LongStream packedPoints(boolean parallel)
+	{
+		return StreamSupport.longStream(pointSpliterator(), parallel);
+	}
+
+	/**
+	 * Get a lazy stream of the points on the curve.
+	 * @return the stream
+	 * @see #pointSpliterator
+	 */
+	public Stream<Point> points()
+	{
+		return packedPoints(false)
+			.mapToObj(p -> new Point(PathBuffer.unpackX(p), PathBuffer.unpackY(p)));
+	}
+
+	/**
+	 * Write a path covering the curve into a buffer.
+	 * <p>
+	 * The path is generated with the curve's {@link #getPathMode path mode}.
+	 * @param path the buffer to write to. It is cleared first.
+	 */
+	public void getPath(PathBuffer path)
+	{
+		getPath(pathMode, path);
+	}
+
+	/**
+	 * Write a path covering the curve into a buffer.
+	 * @param mode the algorithm used to generate the path
+	 * @param path the buffer to write to. It is cleared first.
+	 */
+	public void getPath(PathMode mode, PathBuffer path)
+	{
+		long start = CurveMetrics.start();
+		path.clear();
+		path.addAll(getCachedPath(mode));
+		CurveMetrics.recordPath(start);
+	}
+
+	/**
+	 * Get the bounding box of the path in the curve's path mode.
+	 * @return a copy of the bounds
+	 */
+	public Rectangle getPathBounds()
+	{
+		Rectangle rectangle = pathBounds;
+		if (rectangle == null)
+		{
+			PathBuffer path = getCachedPath(pathMode);
+
+			int minX = Integer.MAX_VALUE;
+			int minY = Integer.MAX_VALUE;
+			int maxX = Integer.MIN_VALUE;
+			int maxY = Integer.MIN_VALUE;
+			for (int i = 0; i < path.size(); i++)
+			{
+				minX = Math.min(minX, path.getX(i));
+				minY = Math.min(minY, path.getY(i));
+				maxX = Math.max(maxX, path.getX(i));
+				maxY = Math.max(maxY, path.getY(i));
+			}
+
+			rectangle = new Rectangle(minX, minY, maxX - minX, maxY - minY);
+			pathBounds = rectangle;
+		}
+		return new Rectangle(rectangle);
+	}
+
+	/**
+	 * Get the memoized path for a mode, generating it on first use.
+	 * <p>
+	 * The returned buffer is shared and must not be modified.
+	 */
+	private PathBuffer getCachedPath(PathMode mode)
+	{
+		CurveEvents.PathEvent event = new CurveEvents.PathEvent();
+		event.begin();
+
+		int i = mode.ordinal();
+		PathBuffer path = paths.get(i);
+		boolean generated = path == null;
+		if (generated)
+		{
+			path = new PathBuffer();
+			generatePath(mode, path);
+
+			/* the first generated buffer wins, so every reader sees the same one */
+			if (!paths.compareAndSet(i, null, path))
+			{
+				path = paths.get(i);
+			}
+		}
+
+		if (event.shouldCommit())
+		{
+			describe(event);
+			event.mode = mode.name();
+			event.generated = generated;
+			event.points = path.size();
+			event.commit();
+		}
+		return path;
+	}
+
+	/**
+	 * Fill in the fields of an event describing this curve.
+	 */
+	private void describe(CurveEvents.CurveEvent event)
+	{
+		Point p1 = controlPoints.get(0);
+		Point p2 = controlPoints.get(controlPoints.size() - 1);
+		BigDecimal increment = getTimeStep(p1, p2);
+
+		event.degree = controlPoints.size() - 1;
+		event.chordLength = distance(p1, p2);
+		event.timeStep = increment.doubleValue();
+		event.sampleCount = getSampleCount(increment);
+	}
+
+	/**
+	 * Generate a path into a buffer, bypassing the cache. Package-private
+	 * so the benchmarks can measure generation itself.
+	 */
+	void generatePath(PathMode mode, PathBuffer path)
+	{
+		switch (mode)
+		{
+			case FORWARD_DIFFERENCE:
+				getForwardDifferencePath(path);
+				break;
+			case ADAPTIVE:
+				getAdaptivePath(path, null);
+				break;
+			case CONSTANT_SPEED:
+				getConstantSpeedPath(1.0D, path);
+				break;
+			case PIECEWISE_CUBIC:
+				getPiecewiseCubicPath(path, null);
+				break;
+			default:
+				getSampledPath(path);
+				break;
+		}
+		CurveMetrics.recordPathPoints(path.size());
+	}
+
+	/**
+	 * Approximate the curve by a chain of cubic segments.
+	 * @param tolerance the greatest distance between the chain and the
+	 *  curve at the same time, in pixels
+	 * @return the chain
+	 */
+	public CubicChain toCubicChain(double tolerance)
+	{
+		return new CubicChain(this, tolerance);
+	}
+
+	/**
+	 * Get the cubic chain of the curve within {@link #CUBIC_TOLERANCE},
+	 * building it on first use.
+	 * @return the cubic chain
+	 */
+	public CubicChain getCubicChain()
+	{
+		CubicChain chain = cubicChain;
+		if (chain == null)
+		{
+			/* building twice under a race is harmless, the chains are equal */
+			chain = new CubicChain(this, CUBIC_TOLERANCE);
+			cubicChain = chain;
+		}
+		return chain;
+	}
+
+	/**
+	 * Get the arc length table of the curve, building it on first use.
+	 * @return the arc length table
+	 */
+	public ArcLengthTable getArcLengthTable()
+	{
+		ArcLengthTable table = arcLengthTable;
+		if (table == null)
+		{
+			/* building twice under a race is harmless, the tables are equal */
+			table = new ArcLengthTable(this);
+			arcLengthTable = table;
+		}
+		return table;
+	}
+
+	/**
+	 * Get the length of the curve.
+	 * @return the arc length, in pixels
+	 */
+	public double getArcLength()
+	{
+		return getArcLengthTable().getLength();
+	}
+
+	/**
+	 * Get the point at a distance along the curve.
+	 * @param distance the arc length from the start of the curve
+	 * @return the point, in double precision
+	 */
+	public Point2D.Double pointAtDistance(double distance)
+	{
+		double[] out = new double[2];
+		getArcLengthTable().pointAtDistance(distance, out);
+
+		return new Point2D.Double(out[0], out[1]);
+	}
+
+	/**
+	 * Get a path with points evenly spaced along the curve.
+	 * @param spacing the arc length between points, in pixels
+	 * @return the path
+	 * @see ArcLengthTable#getConstantSpeedPath
+	 */
+	public List<Point> getConstantSpeedPath(double spacing)
+	{
+		PathBuffer path = new PathBuffer();
+		getConstantSpeedPath(spacing, path);
 
-	public BezierCurve(Point p1, Point p2, int controls)
+		return path.toList();
+	}
+
+	/**
+	 * Write a path with points evenly spaced along the curve into a buffer.
+	 * @param spacing the arc length between points, in pixels
+	 * @param path the buffer to write to. It is cleared first.
+	 * @see ArcLengthTable#getConstantSpeedPath
+	 */
+	public void getConstantSpeedPath(double spacing, PathBuffer path)
 	{
-		this(p1, p2, getBoundingRectangle(p1, p2), controls);
+		getArcLengthTable().getConstantSpeedPath(spacing, path);
 	}
 
-	private BezierCurve(Point p1, Point p2, Rectangle bounds, int controls)
+	private void getSampledPath(PathBuffer path)
 	{
-		this.bounds = bounds;
+		int len = controlPoints.size();
+		Point p1 = controlPoints.get(0);
+		Point p2 = controlPoints.get(len - 1);
 
-		controlPoints = new ArrayList<>();
-		controlPoints.add(p1);
+		BigDecimal increment = getTimeStep(p1, p2);
+		int samples = getSampleCount(increment);
+
+		/* k * increment as the correctly rounded double, like BigDecimal.doubleValue */
+		long numerator = increment.unscaledValue().longValueExact();
+		double denominator = Math.pow(10, increment.scale());
+
+		double[] ts = new double[samples];
+		for (int k = 0; k < samples; k++)
+		{
+			ts[k] = ((k + 1) * numerator) / denominator;
+		}
+
+		double[] sampleXs = new double[samples];
+		double[] sampleYs = new double[samples];
+		solve(ts, sampleXs, sampleYs, samples);
+
+		path.ensureCapacity(samples + 2);
+		path.add(p1.x, p1.y);
+		for (int k = 0; k < samples; k++)
+		{
+			path.addDistinct((int) Math.ceil(sampleXs[k]), (int) Math.ceil(sampleYs[k]));
+		}
+		path.addDistinct(p2.x, p2.y);
+	}
+
+	private void getForwardDifferencePath(PathBuffer path)
+	{
+		int len = controlPoints.size();
+		int n = len - 1;
+		Point p1 = controlPoints.get(0);
+		Point p2 = controlPoints.get(n);
+
+		BigDecimal increment = getTimeStep(p1, p2);
+		double h = increment.doubleValue();
+		int samples = getSampleCount(increment);
+		int interval = getAnchorInterval(samples);
+
+		path.add(p1.x, p1.y);
+
+		double[] dx = new double[len];
+		double[] dy = new double[len];
+		double[] out = new double[2];
+
+		int k = 1;
+		while (k <= samples)
+		{
+			int steps = Math.min(interval, samples - k + 1);
+
+			if (steps <= len)
+			{
+				/* too few steps left to pay for a difference table */
+				for (int i = 0; i < steps; i++)
+				{
+					solve((k + i) * h, Evaluator.HORNER, out);
+					path.addDistinct((int) Math.ceil(out[0]), (int) Math.ceil(out[1]));
+				}
+			}
+			else
+			{
+				/* anchor: sample n + 1 exact points, then difference them in place */
+				for (int i = 0; i < len; i++)
+				{
+					solve((k + i) * h, Evaluator.HORNER, out);
+					dx[i] = out[0];
+					dy[i] = out[1];
+				}
+				for (int j = 1; j < len; j++)
+				{
+					for (int i = n; i >= j; i--)
+					{
+						dx[i] -= dx[i - 1];
+						dy[i] -= dy[i - 1];
+					}
+				}
+
+				for (int i = 0; i < steps; i++)
+				{
+					path.addDistinct((int) Math.ceil(dx[0]), (int) Math.ceil(dy[0]));
+					for (int j = 0; j < n; j++)
+					{
+						dx[j] += dx[j + 1];
+						dy[j] += dy[j + 1];
+					}
+				}
+			}
+
+			k += steps;
+		}
+
+		path.addDistinct(p2.x, p2.y);
+	}
+
+	/**
+	 * Write the part of a path that can be seen through a clip into a buffer.
+	 * <p>
+	 * For {@link PathMode#ADAPTIVE} and {@link PathMode#PIECEWISE_CUBIC},
+	 * pieces of the curve whose control points all lie outside the clip
+	 * are not subdivided or rasterized: the path jumps straight to the
+	 * end of the piece. The jump stays outside the clip, so the path is
+	 * still gap-free wherever it is inside the clip, and a curve entirely
+	 * outside the clip costs almost nothing. Other modes fall back to
+	 * {@link #getPath(PathMode, PathBuffer)}.
+	 * <p>
+	 * Clipped paths are not cached.
+	 *
+	 * @param mode the algorithm used to generate the path
+	 * @param clip the visible area, in the curve's coordinates
+	 * @param path the buffer to write to. It is cleared first.
+	 */
+	public void getClippedPath(PathMode mode, Rectangle2D clip, PathBuffer path)
+	{
+		if (mode != PathMode.ADAPTIVE && mode != PathMode.PIECEWISE_CUBIC)
+		{
+			getPath(mode, path);
+			return;
+		}
+
+		long start = CurveMetrics.start();
+		path.clear();
+		if (mode == PathMode.ADAPTIVE)
+		{
+			getAdaptivePath(path, clip);
+		}
+		else
+		{
+			getPiecewiseCubicPath(path, clip);
+		}
+		CurveMetrics.recordPath(start);
+	}
+
+	private void getAdaptivePath(PathBuffer path, Rectangle2D clip)
+	{
+		int len = xs.length;
+		Point p1 = controlPoints.get(0);
+		Point p2 = controlPoints.get(len - 1);
+
+		path.add(p1.x, p1.y);
 
 		/*
-		*  default to straight line if there's
-		*  no area to unique control points from.
+		*  levels[d] holds the piece being split at depth d, and
+		*  rights[d] its right half while the left half is walked.
 		*/
-		int area = bounds.width * bounds.height;
-		if (area < controls + distance(p1, p2))
+		double[][] levels = new double[MAXIMUM_SUBDIVISION_DEPTH + 1][2 * len];
+		double[][] rights = new double[MAXIMUM_SUBDIVISION_DEPTH][2 * len];
+
+		System.arraycopy(xs, 0, levels[0], 0, len);
+		System.arraycopy(ys, 0, levels[0], len, len);
+
+		subdivide(levels, rights, 0, len, clip, path);
+
+		appendLine(path, p2.x, p2.y);
+	}
+
+	private void getPiecewiseCubicPath(PathBuffer path, Rectangle2D clip)
+	{
+		CubicChain chain = getCubicChain();
+		Point p1 = controlPoints.get(0);
+		Point p2 = controlPoints.get(controlPoints.size() - 1);
+
+		path.add(p1.x, p1.y);
+
+		double[][] levels = new double[MAXIMUM_SUBDIVISION_DEPTH + 1][8];
+		double[][] rights = new double[MAXIMUM_SUBDIVISION_DEPTH][8];
+
+		int segments = chain.getSegmentCount();
+		for (int i = 0; i < segments; i++)
+		{
+			chain.getSegment(i, levels[0]);
+			subdivide(levels, rights, 0, 4, clip, path);
+		}
+
+		appendLine(path, p2.x, p2.y);
+	}
+
+	/**
+	 * @param clip the visible area, or null to rasterize every piece
+	 */
+	private static void subdivide(double[][] levels, double[][] rights, int depth, int len, Rectangle2D clip,
+		PathBuffer path)
+	{
+		double[] piece = levels[depth];
+
+		if (clip != null && isOutside(piece, len, clip))
+		{
+			path.addDistinct((int) Math.ceil(piece[len - 1]), (int) Math.ceil(piece[2 * len - 1]));
+			return;
+		}
+
+		if (depth == MAXIMUM_SUBDIVISION_DEPTH || isFlat(piece, len))
 		{
-			controlPoints.add(p2);
+			appendLine(path, (int) Math.ceil(piece[len - 1]), (int) Math.ceil(piece[2 * len - 1]));
 			return;
 		}
 
-		int i = 0;
-		while (i < controls)
+		double[] left = levels[depth + 1];
+		double[] right = rights[depth];
+		split(piece, len, left, right);
+
+		subdivide(levels, rights, depth + 1, len, clip, path);
+
+		System.arraycopy(right, 0, left, 0, 2 * len);
+		subdivide(levels, rights, depth + 1, len, clip, path);
+	}
+
+	/**
+	 * Check whether every pixel of a piece, as rounded up by the
+	 * rasterizer, lies outside a clip.
+	 */
+	private static boolean isOutside(double[] piece, int len, Rectangle2D clip)
+	{
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < len; i++)
+		{
+			minX = Math.min(minX, piece[i]);
+			minY = Math.min(minY, piece[len + i]);
+			maxX = Math.max(maxX, piece[i]);
+			maxY = Math.max(maxY, piece[len + i]);
+		}
+
+		return Math.ceil(maxX) < clip.getMinX() || Math.ceil(minX) > clip.getMaxX()
+			|| Math.ceil(maxY) < clip.getMinY() || Math.ceil(minY) > clip.getMaxY();
+	}
+
+	/**
+	 * Split a curve at t = 0.5 with de Casteljau's algorithm.
+	 * <p>
+	 * The right half is reduced in place; the last point of each
+	 * level is left behind at its own index, which is exactly where
+	 * it belongs in the second half.
+	 * @param piece the curve, x coordinates followed by y coordinates
+	 * @param len the number of control points
+	 * @param left receives the first half
+	 * @param right receives the second half
+	 */
+	private static void split(double[] piece, int len, double[] left, double[] right)
+	{
+		System.arraycopy(piece, 0, right, 0, 2 * len);
+
+		for (int r = len - 1; r >= 0; r--)
 		{
-			Point point = getControl(bounds);
-			if (!(controlPoints.contains(point) || point.equals(p2)))
+			int i = len - 1 - r;
+			left[i] = right[0];
+			left[len + i] = right[len];
+			for (int j = 0; j < r; j++)
 			{
-				controlPoints.add(point);
-				i++;
+				right[j] = 0.5D * (right[j] + right[j + 1]);
+				right[len + j] = 0.5D * (right[len + j] + right[len + j + 1]);
 			}
 		}
-
-		controlPoints.add(p2);
 	}
 
 	/**
-	 * Get the point on the curve at the time t.
+	 * Check whether all control points of a piece lie within
+	 * {@link #FLATNESS_TOLERANCE} of the chord between its endpoints.
 	 * <p>
-	 * <br />
-	 *  The equation used to get the point is:
-	 * <br />
-	 *  B(t) = (1-t)<sup>2</sup> * P<sub>1</sub>
-	 *  + 2t(1-t)P<sub>control</sub> + t<sup>2</sup> * P<sub>2</sub>
-	 * @param t the time, in interval [0.0, 1.0]
-	 * @return the point on the curve
+	 * Distances are to the chord segment, not the line through it, so
+	 * control points in line with the chord but past its ends, where the
+	 * curve doubles back on itself, keep the piece from counting as flat.
+	 * Package-private for the tests.
+	 *
+	 * @param piece the control points, x coordinates followed by y coordinates
+	 * @param len the number of control points
 	 */
-	public Point solve(double t)
+	static boolean isFlat(double[] piece, int len)
 	{
-		double x = 0;
-		double y = 0;
+		double x0 = piece[0];
+		double y0 = piece[len];
+		double dX = piece[len - 1] - x0;
+		double dY = piece[2 * len - 1] - y0;
+		double chord = dX * dX + dY * dY;
+		double tolerance = FLATNESS_TOLERANCE * FLATNESS_TOLERANCE;
 
-		int len = controlPoints.size();
-		int n = len - 1;
-		for (int k = 0; k < len; k++)
+		for (int i = 1; i < len - 1; i++)
 		{
-			Point p = controlPoints.get(k);
+			double pX = piece[i] - x0;
+			double pY = piece[len + i] - y0;
 
-			int fac = MathUtil.choose(n, k);
-			double tK = Math.pow(t, k);
-			double tCNK = Math.pow((1.0D - t), n - k);
+			/* project onto the chord, clamped to its endpoints */
+			double u = 0.0D;
+			if (chord > 0.0D)
+			{
+				u = Math.min(Math.max((pX * dX + pY * dY) / chord, 0.0D), 1.0D);
+			}
 
-			double intermediate = fac * tK * tCNK;
+			double eX = pX - u * dX;
+			double eY = pY - u * dY;
+			if (eX * eX + eY * eY > tolerance)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
 
-			x += intermediate * p.getX();
-			y += intermediate * p.getY();
+	/**
+	 * Extend the path to (x, y) along a bresenham line, without
+	 * repeating the last point of the path.
+	 */
+	private static void appendLine(PathBuffer path, int x, int y)
+	{
+		int prevX = path.getLastX();
+		int prevY = path.getLastY();
+		if (prevX == x && prevY == y)
+		{
+			return;
 		}
 
-		return new Point((int) Math.ceil(x), (int) Math.ceil(y));
+		path.removeLast();
+		PointUtil.bresenhamPath(prevX, prevY, x, y, path);
 	}
 
 	/**
-	 * Get a time step based on the length of the line.
-	 * <br />
+	 * Get the number of forward difference steps that can be taken
+	 * between re-anchors while staying within {@link #FORWARD_DIFFERENCE_DRIFT}
+	 * pixels of the exact curve.
 	 * <p>
-	 * The number of times the length can be divided by
-	 * {@link #LENGTH_DIVISOR_INCREMENT} determines how small the
-	 * time step will be.
+	 * The difference table is built from n + 1 Horner evaluations, each
+	 * accurate to about &delta; = 2(n+1)&epsilon;M, where M is the largest
+	 * control point coordinate and &epsilon; is the machine epsilon. The j-th
+	 * difference is then accurate to 2<sup>j</sup>&delta;, and after K steps
+	 * the value is the sum of C(K, j) times the j-th difference, so the drift
+	 * is bounded by:
 	 * <br />
-	 * The greater the length, the smaller the time step, and the
-	 * finer the resulting curve.
+	 *  &delta; * sum(C(K, j) * 2<sup>j</sup>, j = 0..min(n, K)) + K * n * &epsilon; * M
+	 * <br />
+	 * where the last term covers rounding in the additions themselves.
+	 * The largest K meeting the tolerance is used, up to the number of samples.
+	 * Low degree curves can step thousands of times per anchor; for high degree
+	 * curves K may fall to n + 1 or below, in which case every point is
+	 * evaluated directly.
 	 *
-	 * @param p1 an endpoint of the line
-	 * @param p2 an endpoint of the line
-	 * @return return a time step between 0 and {@link #MAXIMUM_TIMESTEP}
+	 * @param samples the number of samples on the path
+	 * @return the number of steps between re-anchors, at least 1
 	 */
-	private static BigDecimal getTimeStep(Point p1, Point p2)
+	private int getAnchorInterval(int samples)
 	{
-		/* scale increment to line length, down to a minimum of 0.01 */
-		int length = (int) Math.ceil(distance(p1, p2));
+		int n = xs.length - 1;
 
-		int result = Integer.MAX_VALUE;
-		int divisor = 0;
-		int count = 0;
+		double magnitude = 1.0D;
+		for (int i = 0; i <= n; i++)
+		{
+			magnitude = Math.max(magnitude, Math.max(Math.abs(xs[i]), Math.abs(ys[i])));
+		}
 
-		while (result > 0)
+		if (getDrift(samples, n, magnitude) <= FORWARD_DIFFERENCE_DRIFT)
 		{
-			divisor += LENGTH_DIVISOR_INCREMENT;
-			count += 1;
-			result = length / divisor;
+			return Math.max(samples, 1);
 		}
 
-		return MAXIMUM_TIMESTEP.divide(new BigDecimal(count), DECIMAL_CONTEXT);
+		/* drift grows with K, so binary search for the largest K within tolerance */
+		int lower = 1;
+		int upper = samples;
+		while (upper - lower > 1)
+		{
+			int mid = (lower + upper) >>> 1;
+			if (getDrift(mid, n, magnitude) <= FORWARD_DIFFERENCE_DRIFT)
+			{
+				lower = mid;
+			}
+			else
+			{
+				upper = mid;
+			}
+		}
+
+		return lower;
+	}
+
+	private static double getDrift(int steps, int n, double magnitude)
+	{
+		double epsilon = Math.ulp(1.0D);
+		double delta = 2.0D * (n + 1) * epsilon * magnitude;
+
+		double sum = 0.0D;
+		double coefficient = 1.0D;
+		double power = 1.0D;
+		int terms = Math.min(n, steps);
+		for (int j = 0; j <= terms; j++)
+		{
+			sum += coefficient * power;
+			coefficient = coefficient * (steps - j) / (j + 1);
+			power *= 2.0D;
+		}
+
+		return delta * sum + (double) steps * n * epsilon * magnitude;
 	}
 
 	/**
-	 * Get a path covering the curve.
+	 * Generate the paths of many curves in parallel on the common pool.
+	 * @see #generateBatch(Point[], Point[], int[], PathBuffer[], ForkJoinPool)
+	 */
+	public static void generateBatch(Point[] p1s, Point[] p2s, int[] controls, PathBuffer[] paths)
+	{
+		generateBatch(p1s, p2s, controls, paths, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Generate the paths of many curves in parallel on a dedicated pool.
+	 * <p>
+	 * The pool is created for this batch and shut down afterwards.
+	 * @param parallelism the number of worker threads
+	 * @see #generateBatch(Point[], Point[], int[], PathBuffer[], ForkJoinPool)
+	 */
+	public static void generateBatch(Point[] p1s, Point[] p2s, int[] controls, PathBuffer[] paths, int parallelism)
+	{
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try
+		{
+			generateBatch(p1s, p2s, controls, paths, pool);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Generate the paths of many curves in parallel.
 	 * <p>
-	 * Use this instead of the iterator to get
-	 * the points covering the curve.
+	 * Curve i has endpoints p1s[i] and p2s[i] and controls[i]
+	 * control points, and its path is written into paths[i].
+	 * Null entries in paths are filled with new buffers; existing
+	 * buffers are cleared and reused.
 	 *
-	 * @return the path
+	 * @param p1s the first endpoints
+	 * @param p2s the second endpoints
+	 * @param controls the number of control points of each curve
+	 * @param paths the buffers receiving the paths
+	 * @param pool the pool to run on
+	 * @throws IllegalArgumentException if the arrays differ in length
 	 */
-	public List<Point> getPath()
+	public static void generateBatch(Point[] p1s, Point[] p2s, int[] controls, PathBuffer[] paths, ForkJoinPool pool)
 	{
-		int len = controlPoints.size();
-		Point p1 = controlPoints.get(0).getLocation();
-		Point p2 = controlPoints.get(len - 1).getLocation();
-		Point prev = p1;
+		int len = p1s.length;
+		if (p2s.length != len || controls.length != len || paths.length != len)
+		{
+			throw new IllegalArgumentException("Batch arrays must have the same length");
+		}
 
-		BigDecimal increment = getTimeStep(p1, p2);
+		pool.invoke(new BatchTask(p1s, p2s, controls, paths, 0, len, null));
+	}
+
+	/**
+	 * Generate the paths of many curves in parallel, reproducibly.
+	 * <p>
+	 * The batch is split into tasks deterministically, and each task
+	 * gets its own stream split off random before it is forked, so
+	 * the output depends only on the inputs and the generator's seed,
+	 * never on thread scheduling or pool size.
+	 *
+	 * @param random the root generator, advanced by the call
+	 * @see #generateBatch(Point[], Point[], int[], PathBuffer[], ForkJoinPool)
+	 */
+	public static void generateBatch(Point[] p1s, Point[] p2s, int[] controls, PathBuffer[] paths, ForkJoinPool pool,
+		SplittableRandom random)
+	{
+		int len = p1s.length;
+		if (p2s.length != len || controls.length != len || paths.length != len)
+		{
+			throw new IllegalArgumentException("Batch arrays must have the same length");
+		}
 
-		List<Point> path = new ArrayList<>();
-		path.add(prev);
+		pool.invoke(new BatchTask(p1s, p2s, controls, paths, 0, len, random.split()));
+	}
+
+	private static class BatchTask extends RecursiveAction
+	{
+		private final Point[] p1s;
+		private final Point[] p2s;
+		private final int[] controls;
+		private final PathBuffer[] paths;
+		private final int start;
+		private final int end;
 
-		BigDecimal t = new BigDecimal(increment.toString());
+		/* null to use ThreadLocalRandom */
+		private final SplittableRandom random;
 
-		while(t.compareTo(BigDecimal.ONE) < 0)
+		BatchTask(Point[] p1s, Point[] p2s, int[] controls, PathBuffer[] paths, int start, int end,
+			SplittableRandom random)
 		{
-			Point p = solve(t.doubleValue());
-			if (!p.equals(prev))
-			{
-				prev = p;
-				path.add(p);
-			}
-			t = t.add(increment);
+			this.p1s = p1s;
+			this.p2s = p2s;
+			this.controls = controls;
+			this.paths = paths;
+			this.start = start;
+			this.end = end;
+			this.random = random;
 		}
 
-		if (!prev.equals(p2))
+		@Override
+		protected void compute()
 		{
-			path.add(p2.getLocation());
-		}
+			if (end - start <= BATCH_THRESHOLD)
+			{
+				RandomGenerator generator = random == null ? ThreadLocalRandom.current() : random;
+				for (int i = start; i < end; i++)
+				{
+					if (paths[i] == null)
+					{
+						paths[i] = new PathBuffer();
+					}
+					/* the curve is discarded, so skip memoizing its path */
+					BezierCurve curve = new BezierCurve(p1s[i], p2s[i], controls[i], Sampling.UNIFORM, generator);
+					paths[i].clear();
+					curve.generatePath(curve.pathMode, paths[i]);
+				}
+				return;
+			}
 
-		return path;
+			int mid = (start + end) >>> 1;
+			SplittableRandom right = random == null ? null : random.split();
+			invokeAll(new BatchTask(p1s, p2s, controls, paths, start, mid, random),
+				new BatchTask(p1s, p2s, controls, paths, mid, end, right));
+		}
 	}
 
 	/**
@@ -176,7 +1734,18 @@ public class BezierCurve
 	 */
 	public static int randomInt(int lower, int upper)
 	{
-		Random random = ThreadLocalRandom.current();
+		return randomInt(lower, upper, ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Return a number between lower (inclusive) and upper (exclusive)
+	 * @param lower the lower bound
+	 * @param upper the upper bound
+	 * @param random the source of randomness
+	 * @return the next pseudorandom number
+	 */
+	public static int randomInt(int lower, int upper, RandomGenerator random)
+	{
 		int difference = upper - lower;
 
 		return random.nextInt(difference) + lower;
@@ -200,6 +1769,21 @@ public class BezierCurve
 	 *  the line.
 	 */
 	public static Rectangle getBoundingRectangle(Point p1, Point p2)
+	{
+		return getBoundingRectangle(p1, p2, ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Get a rectangle where the line with endpoints p1 and p2
+	 * form the diagonal (if gradient is non-zero/defined).
+	 * @param p1 the first endpoint of the line
+	 * @param p2 the second endpoint of the line
+	 * @param random the source of randomness for degenerate lines
+	 * @return a bounding rectangle containing all the points in
+	 *  the line.
+	 * @see #getBoundingRectangle(Point, Point)
+	 */
+	public static Rectangle getBoundingRectangle(Point p1, Point p2, RandomGenerator random)
 	{
 		int dX = p1.x - p2.x;
 		int dY = p1.y - p2.y;
@@ -219,7 +1803,7 @@ public class BezierCurve
 		{
 			// gradient == 0
 			width = Math.abs(dX);
-			height = randomInt(width / 2, width);
+			height = randomInt(width / 2, width, random);
 
 			Point left = p2;
 			if (p1.x < p2.x)
@@ -233,7 +1817,7 @@ public class BezierCurve
 		{
 			// gradient undefined
 			height = Math.abs(dY);
-			width = randomInt(height / 2, height);
+			width = randomInt(height / 2, height, random);
 
 			Point top = p1;
 			if (p1.y > p2.y)
@@ -282,6 +1866,57 @@ public class BezierCurve
 		return PointUtil.getRandomBoundPoint(bounds);
 	}
 
+	/**
+	 * Get control point within bounds
+	 * @param bounds the bounds the point should lie in
+	 * @param random the source of randomness
+	 * @return a control point for the curve
+	 * @see #getControl(Rectangle)
+	 */
+	public static Point getControl(Rectangle bounds, RandomGenerator random)
+	{
+		return PointUtil.getRandomBoundPoint(bounds, random);
+	}
+
+	/**
+	 * Get distinct control points within bounds
+	 * <p>
+	 * The generated control points will always be within
+	 * the bounds specified, and will never equal an excluded point.
+	 * <p>
+	 * @param bounds the bounds the points should lie in
+	 * @param controls the number of control points
+	 * @param sampling the strategy used to pick the points
+	 * @param excluded points which must not be picked, such as the endpoints
+	 * @return control points for the curve
+	 */
+	public static List<Point> getControls(Rectangle bounds, int controls, Sampling sampling, Point... excluded)
+	{
+		return getControls(bounds, controls, sampling, ThreadLocalRandom.current(), excluded);
+	}
+
+	/**
+	 * Get distinct control points within bounds
+	 * @param bounds the bounds the points should lie in
+	 * @param controls the number of control points
+	 * @param sampling the strategy used to pick the points
+	 * @param random the source of randomness
+	 * @param excluded points which must not be picked, such as the endpoints
+	 * @return control points for the curve
+	 * @see #getControls(Rectangle, int, Sampling, Point...)
+	 */
+	public static List<Point> getControls(Rectangle bounds, int controls, Sampling sampling, RandomGenerator random,
+		Point... excluded)
+	{
+		switch (sampling)
+		{
+			case HALTON:
+				return PointUtil.haltonPoints(bounds, controls, random, excluded);
+			default:
+				return PointUtil.sampleDistinctPoints(bounds, controls, random, excluded);
+		}
+	}
+
 	public static double distance(Point p1, Point p2)
 	{
 		return p1.distance(p2);
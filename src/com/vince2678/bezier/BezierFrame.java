@@ -1,22 +1,63 @@
 package com.vince2678.bezier;
 
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import javax.swing.JFrame;
+import javax.swing.SwingWorker;
 
 public class BezierFrame extends JFrame
 {
+	/**
+	 * How the frame draws the curve.
+	 */
+	public enum RenderMode
+	{
+		/**
+		 * Draw the curve's cached path pixel by pixel on every paint.
+		 */
+		DIRECT,
+		/**
+		 * Draw the path once, as a single polyline, into an offscreen
+		 * image, and blit the image on later paints until the curve
+		 * or the window size changes.
+		 */
+		BUFFERED,
+	}
+
+	/**
+	 * How far from a curve, in pixels, the mouse counts as hovering over it.
+	 */
+	public static final double HOVER_RADIUS = 4.0D;
+
+	RenderMode renderMode = RenderMode.BUFFERED;
+
 	BezierCurve curve;
+
+	/* the curves shown, for hit-testing the mouse */
+	private final CurveIndex curves = new CurveIndex();
 	MouseAdapter mouseAdapter;
 
+	/* the in-flight curve generation, only touched on the EDT */
+	private CurveWorker worker;
+
 	Point p1 = null;
 	Point p2 = null;
 	Point control = null;
@@ -24,6 +65,9 @@ public class BezierFrame extends JFrame
 
 	int controls = 1;
 
+	private BufferedImage renderCache;
+	private boolean renderCacheValid = false;
+
 	private final Color[] colors = {
 		Color.BLACK,
 		//Color.CYAN,
@@ -43,7 +87,17 @@ public class BezierFrame extends JFrame
 			@Override
 			public void mouseMoved(MouseEvent e)
 			{
-				setTitle("Moved to (" + e.getX() + ", " + e.getY() + ")");
+				/* curve points are drawn as markers down and to the right of the point */
+				BezierCurve hovered = curves.nearest(e.getX() - 2, e.getY() - 2, HOVER_RADIUS);
+				if (hovered != null)
+				{
+					setTitle("Moved to (" + e.getX() + ", " + e.getY() + ") over a curve of degree "
+						+ (hovered.getControlPointCount() - 1));
+				}
+				else
+				{
+					setTitle("Moved to (" + e.getX() + ", " + e.getY() + ")");
+				}
 			}
 
 			@Override
@@ -55,6 +109,11 @@ public class BezierFrame extends JFrame
 					controls = 0;
 				}
 				System.out.println(String.format("Control points: %d", controls));
+
+				if (curve != null || worker != null)
+				{
+					generateCurve();
+				}
 			}
 
 			@Override
@@ -72,30 +131,25 @@ public class BezierFrame extends JFrame
 					}
 					else if (control == null)
 					{
-						curve = new BezierCurve(p1, p2, controls);
+						generateCurve();
 					}
 				}
 				else if (e.getButton() == MouseEvent.BUTTON3) //right
 				{
 					if (p1 != null && p2 != null)
 					{
-						curve = new BezierCurve(p1, p2, controls);
+						generateCurve();
 					}
 					else
 					{
-						p1 = null;
-						p2 = null;
-						control = null;
-						curve = null;
+						reset();
 					}
 				}
 				else
 				{
-					p1 = null;
-					p2 = null;
-					control = null;
-					curve = null;
+					reset();
 				}
+				invalidateRenderCache();
 				repaint();
 			}
 
@@ -106,17 +160,278 @@ public class BezierFrame extends JFrame
 		this.addMouseWheelListener(mouseAdapter);
 	}
 
+	/**
+	 * Start generating a curve between p1 and p2 off the event thread,
+	 * cancelling any generation still in flight. The curve is shown
+	 * once it and its path are ready.
+	 */
+	void generateCurve()
+	{
+		cancelGeneration();
+		worker = new CurveWorker(p1, p2, controls);
+		worker.execute();
+	}
+
+	private void cancelGeneration()
+	{
+		if (worker != null)
+		{
+			worker.cancel(true);
+			worker = null;
+		}
+	}
+
+	private void reset()
+	{
+		cancelGeneration();
+		p1 = null;
+		p2 = null;
+		control = null;
+		setCurve(null);
+	}
+
+	/**
+	 * Show a curve in place of the current one, keeping the
+	 * hit-testing index in step.
+	 */
+	private void setCurve(BezierCurve curve)
+	{
+		if (this.curve != null)
+		{
+			curves.remove(this.curve);
+		}
+		this.curve = curve;
+		if (curve != null)
+		{
+			curves.insert(curve);
+		}
+	}
+
+	/**
+	 * Builds a curve and its path in the background, then
+	 * publishes it to the frame on the event thread.
+	 */
+	private class CurveWorker extends SwingWorker<BezierCurve, Void>
+	{
+		private final Point p1;
+		private final Point p2;
+		private final int controls;
+
+		CurveWorker(Point p1, Point p2, int controls)
+		{
+			this.p1 = p1.getLocation();
+			this.p2 = p2.getLocation();
+			this.controls = controls;
+		}
+
+		/**
+		 * Build the curve and warm everything the event thread will
+		 * need from it, stopping between stages once cancelled.
+		 * <p>
+		 * Cancelling only interrupts the thread, which the stages don't
+		 * check, so without these checks a superseded job would run to
+		 * the end and hold a pool thread for nothing.
+		 */
+		@Override
+		protected BezierCurve doInBackground()
+		{
+			BezierCurve generated = new BezierCurve(p1, p2, controls);
+			if (isCancelled())
+			{
+				return null;
+			}
+
+			/* paths, bounds and the flattened curve are memoized, so painting, indexing and hit-testing reuse them */
+			generated.getPath();
+			if (isCancelled())
+			{
+				return null;
+			}
+
+			generated.prepareHitTesting();
+			return generated;
+		}
+
+		@Override
+		protected void done()
+		{
+			/* a newer job replaced this one while it ran */
+			if (worker != this || isCancelled())
+			{
+				return;
+			}
+			worker = null;
+
+			try
+			{
+				setCurve(get());
+			}
+			catch (InterruptedException | CancellationException e)
+			{
+				return;
+			}
+			catch (ExecutionException e)
+			{
+				/* report it where the frame reports the rest of its state */
+				setTitle("Could not generate a curve of degree " + (controls + 1) + ": " + e.getCause());
+				return;
+			}
+
+			invalidateRenderCache();
+			repaint();
+		}
+	}
+
+	/**
+	 * Mark the offscreen image stale, so the next paint redraws it.
+	 */
+	void invalidateRenderCache()
+	{
+		renderCacheValid = false;
+	}
+
 	@Override
 	public void paint(Graphics graphics)
 	{
 		super.paint(graphics);
-		drawCurve(graphics);
+		if (renderMode == RenderMode.BUFFERED)
+		{
+			drawRenderCache(graphics);
+		}
+		else
+		{
+			drawCurve(graphics);
+		}
+	}
+
+	private void drawRenderCache(Graphics graphics)
+	{
+		int width = getWidth();
+		int height = getHeight();
+		if (width <= 0 || height <= 0)
+		{
+			return;
+		}
+
+		if (renderCache == null || renderCache.getWidth() != width || renderCache.getHeight() != height)
+		{
+			GraphicsConfiguration configuration = getGraphicsConfiguration();
+			if (configuration != null)
+			{
+				renderCache = configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+			}
+			else
+			{
+				renderCache = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			}
+			renderCacheValid = false;
+		}
+
+		if (!renderCacheValid)
+		{
+			Graphics2D cacheGraphics = renderCache.createGraphics();
+			try
+			{
+				cacheGraphics.setComposite(AlphaComposite.Clear);
+				cacheGraphics.fillRect(0, 0, width, height);
+				cacheGraphics.setComposite(AlphaComposite.SrcOver);
+
+				renderCurve(cacheGraphics);
+			}
+			finally
+			{
+				cacheGraphics.dispose();
+			}
+			renderCacheValid = true;
+		}
+
+		graphics.drawImage(renderCache, 0, 0, null);
+	}
+
+	private void renderCurve(Graphics2D graphics)
+	{
+		Dimension size = new Dimension(4, 4);
+
+		drawEndpoints(graphics, size);
+
+		if (curve != null)
+		{
+			drawControls(graphics, size);
+
+			/* skip generating and drawing the path of an off-screen curve */
+			if (curve.intersects(getVisibleArea(graphics, size)))
+			{
+				List<Point> curvePath = curve.getPath();
+
+				/* offset by half the marker size to trace the centres of the direct mode's ovals */
+				Path2D.Float polyline = new Path2D.Float(Path2D.WIND_NON_ZERO, curvePath.size());
+				float offsetX = size.width / 2F;
+				float offsetY = size.height / 2F;
+				for (int i = 0; i < curvePath.size(); i++)
+				{
+					Point point = curvePath.get(i);
+					if (i == 0)
+					{
+						polyline.moveTo(point.x + offsetX, point.y + offsetY);
+					}
+					else
+					{
+						polyline.lineTo(point.x + offsetX, point.y + offsetY);
+					}
+				}
+
+				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				graphics.setStroke(new BasicStroke(size.width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+				graphics.setColor(colors[colorIndex]);
+				graphics.draw(polyline);
+			}
+			colorIndex = (colorIndex + 1) % colors.length;
+		}
 	}
 
 	private void drawCurve(Graphics graphics)
 	{
 		Dimension size = new Dimension(4, 4);
 
+		drawEndpoints(graphics, size);
+
+		if (curve != null)
+		{
+			drawControls(graphics, size);
+
+			/* skip generating and drawing the path of an off-screen curve */
+			if (curve.intersects(getVisibleArea(graphics, size)))
+			{
+				List<Point> curvePath = curve.getPath();
+
+				graphics.setColor(colors[colorIndex]);
+				for (Point point: curvePath)
+				{
+					graphics.fillOval(point.x, point.y, size.width, size.height);
+				}
+			}
+			colorIndex = (colorIndex + 1) % colors.length;
+		}
+	}
+
+	/**
+	 * Get the area in which a point drawn with a marker of the given size
+	 * can be seen: the clip, grown up and to the left by the marker size
+	 * since markers are drawn down and to the right of their point.
+	 */
+	private Rectangle getVisibleArea(Graphics graphics, Dimension size)
+	{
+		Rectangle clip = graphics.getClipBounds();
+		if (clip == null)
+		{
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		return new Rectangle(clip.x - size.width, clip.y - size.height,
+			clip.width + size.width, clip.height + size.height);
+	}
+
+	private void drawEndpoints(Graphics graphics, Dimension size)
+	{
 		if (p1 != null)
 		{
 			graphics.setColor(colors[colorIndex]);
@@ -135,34 +450,22 @@ public class BezierFrame extends JFrame
 			graphics.fillOval(control.x, control.y, size.width, size.height);
 			colorIndex = (colorIndex + 1) % colors.length;
 		}
+	}
 
-		if (curve != null)
+	private void drawControls(Graphics graphics, Dimension size)
+	{
+		if (controls > 0)
 		{
-			long time = System.nanoTime();
-			List<Point> curvePath = curve.getPath();
-			time = System.nanoTime() - time;
-			System.out.println(String.format("Generated curve in: %dus, %dms", time/1000, time/1000000));
-
-			if (controls > 0)
-			{
-				graphics.setColor(new Color(145, 85, 156));
-				for (int i = 1; i < controls + 1; i++)
-				{
-					Point control = curve.getControlPoints().get(i);
-					graphics.fillOval(control.x, control.y, size.width, size.height);
-				}
-			}
-
-			graphics.setColor(Color.BLACK);
-			((Graphics2D) graphics).draw(curve.getBounds());
-
-
-			graphics.setColor(colors[colorIndex]);
-			for (Point point: curvePath)
+			graphics.setColor(new Color(145, 85, 156));
+			List<Point> controlPoints = curve.getControlPoints();
+			for (int i = 1; i < controlPoints.size() - 1; i++)
 			{
-				graphics.fillOval(point.x, point.y, size.width, size.height);
+				Point control = controlPoints.get(i);
+				graphics.fillOval(control.x, control.y, size.width, size.height);
 			}
-			colorIndex = (colorIndex + 1) % colors.length;
 		}
+
+		graphics.setColor(Color.BLACK);
+		((Graphics2D) graphics).draw(curve.getBounds());
 	}
 }
@@ -0,0 +1,34 @@
+package com.vince2678.bezier;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A snapshot of a cache's counters.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class CacheStats
+{
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final int size;
+	private final int capacity;
+
+	/**
+	 * Get the fraction of lookups that were hits.
+	 * @return the hit rate, in interval [0.0, 1.0], or 0 if there were no lookups
+	 */
+	public double getHitRate()
+	{
+		long lookups = hits + misses;
+		if (lookups == 0)
+		{
+			return 0.0D;
+		}
+		return (double) hits / lookups;
+	}
+}
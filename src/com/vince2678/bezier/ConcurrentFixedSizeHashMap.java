@@ -0,0 +1,538 @@
+package com.vince2678.bezier;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * A thread-safe counterpart to {@link FixedSizeHashMap}.
+ * <p>
+ * Entries live in a wrapped {@link ConcurrentHashMap}, so reads never
+ * block. Writes record new keys in a lock-free queue, and once the map
+ * grows past its capacity the oldest keys are evicted in insertion order.
+ * Concurrent puts may briefly overshoot the capacity by the number of
+ * racing writers, but every writer evicts until the map is back in bounds.
+ * <p>
+ * Every way of adding or removing an entry, including the compute
+ * methods and removal through the key, value and entry views, updates
+ * the eviction queue and count. An explicit removal takes its key out
+ * of the queue, which is linear in the queue's length; only a put
+ * racing a removal of the same key can leave a stale queue entry, and
+ * eviction skips it.
+ * <p>
+ * Null keys and values are not supported. Hits and misses are
+ * counted on {@link #get}.
+ */
+public class ConcurrentFixedSizeHashMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
+{
+	private final ConcurrentHashMap<K, V> map;
+	private final Queue<K> queue;
+	private final AtomicInteger count;
+
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder evictions;
+
+	@Getter
+	private volatile int capacity;
+
+	public ConcurrentFixedSizeHashMap(int capacity)
+	{
+		this.capacity = capacity;
+		map = new ConcurrentHashMap<>(capacity);
+		queue = new ConcurrentLinkedQueue<>();
+		count = new AtomicInteger();
+		hits = new LongAdder();
+		misses = new LongAdder();
+		evictions = new LongAdder();
+	}
+
+	public void setCapacity(int capacity)
+	{
+		this.capacity = capacity;
+		evict();
+	}
+
+	@Override
+	public int size()
+	{
+		return map.size();
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return map.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object k)
+	{
+		return map.containsKey(k);
+	}
+
+	@Override
+	public boolean containsValue(Object v)
+	{
+		return map.containsValue(v);
+	}
+
+	@Override
+	public V get(Object k)
+	{
+		V v = map.get(k);
+		if (v == null)
+		{
+			misses.increment();
+		}
+		else
+		{
+			hits.increment();
+		}
+		return v;
+	}
+
+	@Override
+	public V put(K k, V v)
+	{
+		V old = map.put(k, v);
+		if (old == null)
+		{
+			inserted(k);
+		}
+		return old;
+	}
+
+	@Override
+	public V putIfAbsent(K k, V v)
+	{
+		V old = map.putIfAbsent(k, v);
+		if (old == null)
+		{
+			inserted(k);
+		}
+		return old;
+	}
+
+	@Override
+	public void putAll(Map<? extends K, ? extends V> map)
+	{
+		for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+		{
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public V replace(K k, V v)
+	{
+		return map.replace(k, v);
+	}
+
+	@Override
+	public boolean replace(K k, V old, V v)
+	{
+		return map.replace(k, old, v);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> biFunction)
+	{
+		map.replaceAll(biFunction);
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action)
+	{
+		map.forEach(action);
+	}
+
+	/**
+	 * Get the value for k, computing and caching it if absent.
+	 * <p>
+	 * Unlike {@link ConcurrentHashMap#computeIfAbsent}, the function is
+	 * called outside any lock, so it may be called more than once for the
+	 * same key under contention and may itself use this map.
+	 */
+	@Override
+	public V computeIfAbsent(K k, Function<? super K, ? extends V> function)
+	{
+		V v = get(k);
+		if (v != null)
+		{
+			return v;
+		}
+
+		v = function.apply(k);
+		if (v == null)
+		{
+			return null;
+		}
+
+		V old = putIfAbsent(k, v);
+		return old == null ? v : old;
+	}
+
+	/**
+	 * Compute a new value for k from its current value, atomically, as
+	 * {@link ConcurrentHashMap#compute} does. The function must not use
+	 * this map.
+	 */
+	@Override
+	public V compute(K k, BiFunction<? super K, ? super V, ? extends V> biFunction)
+	{
+		Change change = new Change();
+		V v = map.compute(k, (key, old) -> change.record(old, biFunction.apply(key, old)));
+		change.apply(k);
+		return v;
+	}
+
+	/**
+	 * Compute a new value for k if it is present, atomically, as
+	 * {@link ConcurrentHashMap#computeIfPresent} does. The function must
+	 * not use this map.
+	 */
+	@Override
+	public V computeIfPresent(K k, BiFunction<? super K, ? super V, ? extends V> biFunction)
+	{
+		Change change = new Change();
+		V v = map.computeIfPresent(k, (key, old) -> change.record(old, biFunction.apply(key, old)));
+		change.apply(k);
+		return v;
+	}
+
+	/**
+	 * Put v for k, or combine it with the current value, atomically, as
+	 * {@link ConcurrentHashMap#merge} does. The function must not use
+	 * this map.
+	 */
+	@Override
+	public V merge(K k, V v, BiFunction<? super V, ? super V, ? extends V> biFunction)
+	{
+		if (v == null)
+		{
+			throw new NullPointerException();
+		}
+
+		Change change = new Change();
+		V merged = map.compute(k, (key, old) -> change.record(old, old == null ? v : biFunction.apply(old, v)));
+		change.apply(k);
+		return merged;
+	}
+
+	@Override
+	public V remove(Object k)
+	{
+		V v = map.remove(k);
+		if (v != null)
+		{
+			removed(k);
+		}
+		return v;
+	}
+
+	@Override
+	public boolean remove(Object k, Object v)
+	{
+		boolean retval = map.remove(k, v);
+		if (retval)
+		{
+			removed(k);
+		}
+		return retval;
+	}
+
+	@Override
+	public void clear()
+	{
+		K k;
+		while ((k = queue.poll()) != null)
+		{
+			if (map.remove(k) != null)
+			{
+				count.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Get a view of the keys. Removing from it removes from the map.
+	 */
+	@Override
+	public Set<K> keySet()
+	{
+		return new AbstractSet<K>()
+		{
+			@Override
+			public Iterator<K> iterator()
+			{
+				return new ViewIterator<>(Map.Entry::getKey);
+			}
+
+			@Override
+			public int size()
+			{
+				return map.size();
+			}
+
+			@Override
+			public boolean contains(Object k)
+			{
+				return map.containsKey(k);
+			}
+
+			@Override
+			public boolean remove(Object k)
+			{
+				return ConcurrentFixedSizeHashMap.this.remove(k) != null;
+			}
+
+			@Override
+			public void clear()
+			{
+				ConcurrentFixedSizeHashMap.this.clear();
+			}
+		};
+	}
+
+	/**
+	 * Get a view of the values. Removing from it removes from the map.
+	 */
+	@Override
+	public Collection<V> values()
+	{
+		return new AbstractCollection<V>()
+		{
+			@Override
+			public Iterator<V> iterator()
+			{
+				return new ViewIterator<>(Map.Entry::getValue);
+			}
+
+			@Override
+			public int size()
+			{
+				return map.size();
+			}
+
+			@Override
+			public boolean contains(Object v)
+			{
+				return map.containsValue(v);
+			}
+
+			@Override
+			public void clear()
+			{
+				ConcurrentFixedSizeHashMap.this.clear();
+			}
+		};
+	}
+
+	/**
+	 * Get a view of the entries. Removing from it removes from the map,
+	 * and setting an entry's value writes through to the map.
+	 */
+	@Override
+	public Set<Map.Entry<K, V>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<K, V>>()
+		{
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator()
+			{
+				return new ViewIterator<>(WriteThroughEntry::new);
+			}
+
+			@Override
+			public int size()
+			{
+				return map.size();
+			}
+
+			@Override
+			public boolean contains(Object o)
+			{
+				return map.entrySet().contains(o);
+			}
+
+			@Override
+			public boolean remove(Object o)
+			{
+				if (!(o instanceof Map.Entry))
+				{
+					return false;
+				}
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+				return ConcurrentFixedSizeHashMap.this.remove(entry.getKey(), entry.getValue());
+			}
+
+			@Override
+			public void clear()
+			{
+				ConcurrentFixedSizeHashMap.this.clear();
+			}
+		};
+	}
+
+	private void inserted(K k)
+	{
+		queue.add(k);
+		if (count.incrementAndGet() > capacity)
+		{
+			evict();
+		}
+	}
+
+	private void removed(Object k)
+	{
+		count.decrementAndGet();
+		queue.remove(k);
+	}
+
+	/**
+	 * Remove the oldest keys until the map is within capacity.
+	 * <p>
+	 * A stale queue entry left by a racing removal names a key that is
+	 * no longer mapped, so it is skipped.
+	 */
+	private void evict()
+	{
+		while (count.get() > capacity)
+		{
+			K victim = queue.poll();
+			if (victim == null)
+			{
+				return;
+			}
+			if (map.remove(victim) != null)
+			{
+				count.decrementAndGet();
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * Get the number of keys waiting in the eviction queue.
+	 */
+	int getQueueLength()
+	{
+		return queue.size();
+	}
+
+	public CacheStats getStats()
+	{
+		return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), count.get(), capacity);
+	}
+
+	public void resetStats()
+	{
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	/**
+	 * Whether a compute call added or removed its key. It is recorded
+	 * under the wrapped map's lock, and applied after it is released,
+	 * since evicting takes other locks.
+	 */
+	private class Change
+	{
+		private boolean added;
+		private boolean removed;
+
+		V record(V old, V v)
+		{
+			added = old == null && v != null;
+			removed = old != null && v == null;
+			return v;
+		}
+
+		void apply(K k)
+		{
+			if (added)
+			{
+				inserted(k);
+			}
+			else if (removed)
+			{
+				removed(k);
+			}
+		}
+	}
+
+	/**
+	 * An iterator over the wrapped map's entries whose remove goes
+	 * through {@link #remove(Object)}.
+	 */
+	private class ViewIterator<T> implements Iterator<T>
+	{
+		private final Iterator<Map.Entry<K, V>> entries = map.entrySet().iterator();
+		private final Function<Map.Entry<K, V>, T> view;
+		private Map.Entry<K, V> last;
+
+		ViewIterator(Function<Map.Entry<K, V>, T> view)
+		{
+			this.view = view;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return entries.hasNext();
+		}
+
+		@Override
+		public T next()
+		{
+			last = entries.next();
+			return view.apply(last);
+		}
+
+		@Override
+		public void remove()
+		{
+			if (last == null)
+			{
+				throw new IllegalStateException();
+			}
+			ConcurrentFixedSizeHashMap.this.remove(last.getKey());
+			last = null;
+		}
+	}
+
+	/**
+	 * An entry whose {@link #setValue} goes through {@link #put}.
+	 */
+	private class WriteThroughEntry extends AbstractMap.SimpleEntry<K, V>
+	{
+		WriteThroughEntry(Map.Entry<K, V> entry)
+		{
+			super(entry);
+		}
+
+		@Override
+		public V setValue(V v)
+		{
+			V old = super.setValue(v);
+			put(getKey(), v);
+			return old;
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package com.vince2678.bezier;
+
+import java.util.Arrays;
+
+/**
+ * An approximation of a {@link BezierCurve} of any degree by a chain of
+ * cubic Bezier segments, each within a pixel tolerance of the curve.
+ * <p>
+ * Each segment is the cubic Hermite interpolant of the curve over a time
+ * interval: it matches the curve's points and derivatives at both ends.
+ * Intervals whose segment strays too far from the curve at any of
+ * {@value #ERROR_SAMPLES} evenly spaced times are halved until they fit,
+ * so the chain is finest where the curve bends most. Between those times
+ * the error can exceed the tolerance, but only by a small fraction. Once
+ * built, evaluating a point costs the same whatever the curve's degree.
+ * <p>
+ * The chain keeps the curve's parametrization: {@link #solve} at time t
+ * is within the tolerance of the curve at time t, not merely near it.
+ */
+public class CubicChain
+{
+	/**
+	 * The deepest an interval is halved, bounding the chain to
+	 * 2<sup>{@value}</sup> segments.
+	 */
+	public static final int MAXIMUM_DEPTH = 16;
+
+	/**
+	 * The number of intervals each segment is divided into to check it
+	 * against the curve.
+	 */
+	public static final int ERROR_SAMPLES = 16;
+
+	private final double tolerance;
+
+	/* segment i covers [knots[i], knots[i + 1]] */
+	private double[] knots;
+
+	/* 8 per segment: x0..x3 followed by y0..y3 */
+	private double[] segments;
+	private int count;
+
+	/**
+	 * @param curve the curve to approximate
+	 * @param tolerance the greatest distance between the chain and the
+	 *  curve at the same time, in pixels
+	 */
+	public CubicChain(BezierCurve curve, double tolerance)
+	{
+		if (!(tolerance > 0.0D))
+		{
+			throw new IllegalArgumentException("tolerance must be positive");
+		}
+
+		this.tolerance = tolerance;
+		knots = new double[16];
+		segments = new double[8 * 16];
+		count = 0;
+
+		double[] start = new double[4];
+		double[] end = new double[4];
+		evaluate(curve, 0.0D, start);
+		evaluate(curve, 1.0D, end);
+
+		knots[0] = 0.0D;
+		fit(curve, 0.0D, 1.0D, start, end, 0, new double[8], new double[2]);
+	}
+
+	/**
+	 * Get the point and derivative of the curve at time t as
+	 * x, y, dx/dt, dy/dt.
+	 */
+	private static void evaluate(BezierCurve curve, double t, double[] out)
+	{
+		double[] point = new double[2];
+		curve.solve(t, point);
+		out[0] = point[0];
+		out[1] = point[1];
+
+		curve.derivative(t, point);
+		out[2] = point[0];
+		out[3] = point[1];
+	}
+
+	private void fit(BezierCurve curve, double t0, double t1, double[] start, double[] end, int depth,
+		double[] segment, double[] out)
+	{
+		hermite(t1 - t0, start, end, segment);
+
+		if (depth == MAXIMUM_DEPTH || fits(curve, t0, t1, segment, out))
+		{
+			append(t1, segment);
+			return;
+		}
+
+		double mid = 0.5D * (t0 + t1);
+		double[] middle = new double[4];
+		evaluate(curve, mid, middle);
+
+		fit(curve, t0, mid, start, middle, depth + 1, segment, out);
+		fit(curve, mid, t1, middle, end, depth + 1, segment, out);
+	}
+
+	/**
+	 * Get the cubic matching the points and derivatives at both ends
+	 * of an interval of width h.
+	 */
+	private static void hermite(double h, double[] start, double[] end, double[] segment)
+	{
+		double third = h / 3.0D;
+
+		segment[0] = start[0];
+		segment[1] = start[0] + third * start[2];
+		segment[2] = end[0] - third * end[2];
+		segment[3] = end[0];
+
+		segment[4] = start[1];
+		segment[5] = start[1] + third * start[3];
+		segment[6] = end[1] - third * end[3];
+		segment[7] = end[1];
+	}
+
+	private boolean fits(BezierCurve curve, double t0, double t1, double[] segment, double[] out)
+	{
+		double limit = tolerance * tolerance;
+		for (int i = 1; i < ERROR_SAMPLES; i++)
+		{
+			double u = (double) i / ERROR_SAMPLES;
+			curve.solve(t0 + u * (t1 - t0), out);
+
+			double dX = cubic(segment, 0, u) - out[0];
+			double dY = cubic(segment, 4, u) - out[1];
+			if (dX * dX + dY * dY > limit)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void append(double t1, double[] segment)
+	{
+		if (count + 1 == knots.length)
+		{
+			int capacity = 2 * knots.length;
+			knots = Arrays.copyOf(knots, capacity);
+			segments = Arrays.copyOf(segments, 8 * capacity);
+		}
+
+		System.arraycopy(segment, 0, segments, 8 * count, 8);
+		count++;
+		knots[count] = t1;
+	}
+
+	private static double cubic(double[] coefficients, int offset, double u)
+	{
+		double s = 1.0D - u;
+		return s * s * s * coefficients[offset]
+			+ 3.0D * s * s * u * coefficients[offset + 1]
+			+ 3.0D * s * u * u * coefficients[offset + 2]
+			+ u * u * u * coefficients[offset + 3];
+	}
+
+	public double getTolerance()
+	{
+		return tolerance;
+	}
+
+	public int getSegmentCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Get the control points of a segment.
+	 * @param i the index of the segment
+	 * @param out array receiving x0..x3 in out[0..3] and y0..y3 in out[4..7]
+	 */
+	public void getSegment(int i, double[] out)
+	{
+		if (i < 0 || i >= count)
+		{
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + count);
+		}
+		System.arraycopy(segments, 8 * i, out, 0, 8);
+	}
+
+	/**
+	 * Get the time at which a segment starts.
+	 * @param i the index of the segment, or the segment count for t = 1
+	 * @return the time, in interval [0.0, 1.0]
+	 */
+	public double getKnot(int i)
+	{
+		if (i < 0 || i > count)
+		{
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + (count + 1));
+		}
+		return knots[i];
+	}
+
+	/**
+	 * Get the point on the chain at the time t in double precision.
+	 * @param t the time, in interval [0.0, 1.0]
+	 * @param out array receiving x in out[0] and y in out[1]
+	 */
+	public void solve(double t, double[] out)
+	{
+		int i = Arrays.binarySearch(knots, 0, count + 1, t);
+		if (i < 0)
+		{
+			/* t lies inside segment (-i - 1) - 1 */
+			i = -i - 2;
+		}
+		i = Math.min(Math.max(i, 0), count - 1);
+
+		double t0 = knots[i];
+		double u = (t - t0) / (knots[i + 1] - t0);
+
+		out[0] = cubic(segments, 8 * i, u);
+		out[1] = cubic(segments, 8 * i + 4, u);
+	}
+}
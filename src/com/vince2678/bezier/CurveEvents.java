@@ -0,0 +1,109 @@
+package com.vince2678.bezier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the curve generation hot paths.
+ * <p>
+ * Every event is disabled by default, so while it is not being recorded
+ * an instrumented call only pays for {@link Event#shouldCommit}. Enable
+ * them by name, e.g. {@code com.vince2678.bezier.Path}, in a settings
+ * file passed to {@code JFR.start}, or in code with
+ * {@link jdk.jfr.Recording#enable(Class)}.
+ * <p>
+ * Each event records its duration, and curve events also record the
+ * curve's degree, chord length, time step and sample count, so slow
+ * events point at the inputs that caused them.
+ */
+public class CurveEvents
+{
+	public static final String CATEGORY = "Bezier";
+
+	/**
+	 * The fields shared by events about one curve.
+	 */
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public abstract static class CurveEvent extends Event
+	{
+		@Label("Degree")
+		int degree;
+
+		@Label("Chord Length")
+		@Description("Distance between the endpoints, in pixels")
+		double chordLength;
+
+		@Label("Time Step")
+		@Description("Time between samples of the sampled path")
+		double timeStep;
+
+		@Label("Sample Count")
+		@Description("Number of samples strictly inside (0, 1)")
+		int sampleCount;
+	}
+
+	@Name("com.vince2678.bezier.Construction")
+	@Label("Curve Construction")
+	public static class ConstructionEvent extends CurveEvent
+	{
+		@Label("Sampling")
+		String sampling;
+	}
+
+	@Name("com.vince2678.bezier.Path")
+	@Label("Curve Path")
+	@Description("A path requested from a curve")
+	public static class PathEvent extends CurveEvent
+	{
+		@Label("Path Mode")
+		String mode;
+
+		@Label("Generated")
+		@Description("Whether the path was generated rather than found in the curve's cache")
+		boolean generated;
+
+		@Label("Points")
+		int points;
+	}
+
+	@Name("com.vince2678.bezier.CacheMiss")
+	@Label("Math Cache Miss")
+	@Description("A MathUtil cache miss, lasting as long as computing the value")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static class CacheMissEvent extends Event
+	{
+		@Label("Cache")
+		String cache;
+
+		@Label("N")
+		int n;
+
+		@Label("K")
+		@Description("The second argument, such as k of nCk or the exponent of pow")
+		int k;
+	}
+
+	@Name("com.vince2678.bezier.Interpolation")
+	@Label("Path Interpolation")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static class InterpolationEvent extends Event
+	{
+		@Label("Input Points")
+		int inputPoints;
+
+		@Label("Points")
+		@Description("Number of points emitted")
+		int points;
+	}
+}
@@ -0,0 +1,554 @@
+package com.vince2678.bezier;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial index over {@link BezierCurve}s for hit-testing, using a
+ * uniform grid of square cells.
+ * <p>
+ * Each curve is entered in every cell its {@link BezierCurve#getTightBounds
+ * tight bounds} overlap. A query looks up only the cells it covers,
+ * rejects candidates by their bounds, and refines the rest against the
+ * curve itself with {@link BezierCurve#distanceTo} or
+ * {@link BezierCurve#passesThrough}. Curves are immutable, so an indexed
+ * curve never needs updating.
+ * <p>
+ * Cells are kept in an open addressing table keyed by the packed cell
+ * coordinates, and candidates are collected into a reused buffer, so
+ * {@link #nearest} allocates nothing once the buffer has grown.
+ * <p>
+ * Pick a cell size around the size of a typical query: cells much
+ * smaller than the curves make inserts expensive, and much larger ones
+ * make queries scan many candidates. Curves covering more than
+ * {@link #MAXIMUM_CELLS} cells are kept in a list every query scans
+ * instead. The index is not thread-safe.
+ */
+public class CurveIndex
+{
+	public static final int DEFAULT_CELL_SIZE = 64;
+
+	/**
+	 * The most cells a curve is entered in.
+	 */
+	public static final int MAXIMUM_CELLS = 4096;
+
+	private static final int INITIAL_SLOTS = 64;
+
+	private final int cellSize;
+	private final Map<BezierCurve, Entry> entries;
+
+	/* open addressing table from packed cell coordinates to cells, null slots are empty */
+	private long[] keys;
+	private Cell[] cells;
+	private int cellCount;
+
+	/* curves too large to enter cell by cell */
+	private final Cell oversized;
+
+	/* the candidates of the running query, each marked with the query's stamp */
+	private Entry[] candidates;
+	private int candidateCount;
+	private int stamp;
+
+	public CurveIndex()
+	{
+		this(DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * @param cellSize the width and height of each cell, in pixels
+	 */
+	public CurveIndex(int cellSize)
+	{
+		if (cellSize <= 0)
+		{
+			throw new IllegalArgumentException("cellSize must be positive");
+		}
+
+		this.cellSize = cellSize;
+		entries = new IdentityHashMap<>();
+		keys = new long[INITIAL_SLOTS];
+		cells = new Cell[INITIAL_SLOTS];
+		cellCount = 0;
+		oversized = new Cell();
+		candidates = new Entry[16];
+	}
+
+	public int getCellSize()
+	{
+		return cellSize;
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	public boolean contains(BezierCurve curve)
+	{
+		return entries.containsKey(curve);
+	}
+
+	/**
+	 * Add a curve to the index.
+	 * <p>
+	 * This computes the curve's tight bounds if they are not already
+	 * memoized; call {@link BezierCurve#getTightBounds} beforehand to do
+	 * that work off the calling thread.
+	 * @param curve the curve
+	 * @return false if the curve was already indexed
+	 * @throws IllegalArgumentException if the curve's bounds are not finite
+	 */
+	public boolean insert(BezierCurve curve)
+	{
+		if (entries.containsKey(curve))
+		{
+			return false;
+		}
+
+		Rectangle2D.Double bounds = curve.getTightBounds();
+		if (!Double.isFinite(bounds.getMinX()) || !Double.isFinite(bounds.getMinY())
+			|| !Double.isFinite(bounds.getMaxX()) || !Double.isFinite(bounds.getMaxY()))
+		{
+			throw new IllegalArgumentException("Curve bounds are not finite: " + bounds);
+		}
+
+		Entry entry = new Entry(curve, bounds);
+		entries.put(curve, entry);
+
+		if (entry.isOversized())
+		{
+			oversized.add(entry);
+			return true;
+		}
+
+		for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++)
+		{
+			for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++)
+			{
+				getOrCreateCell(LongKeyedCache.pack(cellX, cellY)).add(entry);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Remove a curve from the index.
+	 * @param curve the curve
+	 * @return false if the curve was not indexed
+	 */
+	public boolean remove(BezierCurve curve)
+	{
+		Entry entry = entries.remove(curve);
+		if (entry == null)
+		{
+			return false;
+		}
+
+		if (entry.isOversized())
+		{
+			oversized.remove(entry);
+			return true;
+		}
+
+		for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++)
+		{
+			for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++)
+			{
+				long key = LongKeyedCache.pack(cellX, cellY);
+				int slot = find(key);
+				Cell cell = cells[slot];
+				cell.remove(entry);
+				if (cell.size == 0)
+				{
+					deleteSlot(slot);
+				}
+			}
+		}
+		return true;
+	}
+
+	public void clear()
+	{
+		entries.clear();
+		keys = new long[INITIAL_SLOTS];
+		cells = new Cell[INITIAL_SLOTS];
+		cellCount = 0;
+		oversized.clear();
+		Arrays.fill(candidates, null);
+		candidateCount = 0;
+	}
+
+	/**
+	 * Get the curves passing within a distance of a point.
+	 * @param x the x coordinate of the point
+	 * @param y the y coordinate of the point
+	 * @param radius the greatest distance from the point, in pixels
+	 * @return the curves, nearest first
+	 */
+	public List<BezierCurve> query(double x, double y, double radius)
+	{
+		collectCandidates(x - radius, y - radius, x + radius, y + radius);
+
+		List<Entry> hits = new ArrayList<>();
+		for (int i = 0; i < candidateCount; i++)
+		{
+			Entry entry = candidates[i];
+			if (entry.distanceTo(x, y) <= radius)
+			{
+				entry.distance = entry.curve.distanceTo(x, y);
+				if (entry.distance <= radius)
+				{
+					hits.add(entry);
+				}
+			}
+		}
+		releaseCandidates();
+
+		hits.sort((a, b) -> Double.compare(a.distance, b.distance));
+
+		List<BezierCurve> curves = new ArrayList<>(hits.size());
+		for (Entry entry: hits)
+		{
+			curves.add(entry.curve);
+		}
+		return curves;
+	}
+
+	/**
+	 * Get the curve nearest to a point, within a distance.
+	 * <p>
+	 * Candidates whose bounds are further than the nearest curve found
+	 * so far are not refined against the curve.
+	 *
+	 * @param x the x coordinate of the point
+	 * @param y the y coordinate of the point
+	 * @param radius the greatest distance from the point, in pixels
+	 * @return the curve, or null if no curve is within the distance
+	 */
+	public BezierCurve nearest(double x, double y, double radius)
+	{
+		collectCandidates(x - radius, y - radius, x + radius, y + radius);
+
+		BezierCurve nearest = null;
+		double nearestDistance = radius;
+		for (int i = 0; i < candidateCount; i++)
+		{
+			Entry entry = candidates[i];
+			if (entry.distanceTo(x, y) > nearestDistance)
+			{
+				continue;
+			}
+
+			double distance = entry.curve.distanceTo(x, y);
+			if (distance < nearestDistance || (distance == nearestDistance && nearest == null))
+			{
+				nearest = entry.curve;
+				nearestDistance = distance;
+			}
+		}
+		releaseCandidates();
+
+		return nearest;
+	}
+
+	/**
+	 * Get the curves passing through a rectangle.
+	 * @param area the rectangle
+	 * @return the curves, in no particular order
+	 */
+	public List<BezierCurve> query(Rectangle2D area)
+	{
+		if (area.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+
+		collectCandidates(area.getMinX(), area.getMinY(), area.getMaxX(), area.getMaxY());
+
+		List<BezierCurve> curves = new ArrayList<>();
+		for (int i = 0; i < candidateCount; i++)
+		{
+			Entry entry = candidates[i];
+			if (entry.curve.passesThrough(area))
+			{
+				curves.add(entry.curve);
+			}
+		}
+		releaseCandidates();
+
+		return curves;
+	}
+
+	/**
+	 * Fill the candidate buffer with the entries in the cells covering a
+	 * rectangle, and every oversized entry, each once.
+	 */
+	private void collectCandidates(double minX, double minY, double maxX, double maxY)
+	{
+		candidateCount = 0;
+		if (++stamp == 0)
+		{
+			/* the stamp wrapped around, so old marks could match again */
+			for (Entry entry: entries.values())
+			{
+				entry.stamp = 0;
+			}
+			stamp = 1;
+		}
+
+		addCandidates(oversized);
+
+		/* a query covering more cells than there are curves scans every curve instead */
+		int minCellX = toCell(minX);
+		int minCellY = toCell(minY);
+		int maxCellX = toCell(maxX);
+		int maxCellY = toCell(maxY);
+		if (getCellCount(minCellX, minCellY, maxCellX, maxCellY) > entries.size())
+		{
+			for (Entry entry: entries.values())
+			{
+				addCandidate(entry);
+			}
+			return;
+		}
+
+		for (int cellY = minCellY; cellY <= maxCellY; cellY++)
+		{
+			for (int cellX = minCellX; cellX <= maxCellX; cellX++)
+			{
+				int slot = find(LongKeyedCache.pack(cellX, cellY));
+				if (cells[slot] != null)
+				{
+					addCandidates(cells[slot]);
+				}
+			}
+		}
+	}
+
+	private void addCandidates(Cell cell)
+	{
+		for (int i = 0; i < cell.size; i++)
+		{
+			addCandidate(cell.entries[i]);
+		}
+	}
+
+	private void addCandidate(Entry entry)
+	{
+		if (entry.stamp == stamp)
+		{
+			return;
+		}
+		entry.stamp = stamp;
+
+		if (candidateCount == candidates.length)
+		{
+			candidates = Arrays.copyOf(candidates, 2 * candidateCount);
+		}
+		candidates[candidateCount++] = entry;
+	}
+
+	/**
+	 * Drop the references to the last query's candidates, so the buffer
+	 * doesn't keep removed curves alive.
+	 */
+	private void releaseCandidates()
+	{
+		Arrays.fill(candidates, 0, candidateCount, null);
+		candidateCount = 0;
+	}
+
+	private int home(long key)
+	{
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> Long.numberOfLeadingZeros(keys.length - 1L));
+	}
+
+	/**
+	 * Get the slot holding a key, or the empty slot ending its probe run.
+	 */
+	private int find(long key)
+	{
+		int mask = keys.length - 1;
+		int slot = home(key);
+		while (cells[slot] != null && keys[slot] != key)
+		{
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private Cell getOrCreateCell(long key)
+	{
+		int slot = find(key);
+		if (cells[slot] != null)
+		{
+			return cells[slot];
+		}
+
+		/* keep the table at most half full, so probe runs stay short */
+		if (2 * (cellCount + 1) > keys.length)
+		{
+			resize(2 * keys.length);
+			slot = find(key);
+		}
+
+		Cell cell = new Cell();
+		keys[slot] = key;
+		cells[slot] = cell;
+		cellCount++;
+		return cell;
+	}
+
+	/**
+	 * Empty a slot, shifting later entries of its probe run back so
+	 * lookups never stop at the hole.
+	 */
+	private void deleteSlot(int slot)
+	{
+		int mask = keys.length - 1;
+		cells[slot] = null;
+		cellCount--;
+
+		int next = (slot + 1) & mask;
+		while (cells[next] != null)
+		{
+			int home = home(keys[next]);
+
+			/* move it back if its home doesn't lie cyclically in (slot, next] */
+			if (((next - home) & mask) >= ((next - slot) & mask))
+			{
+				keys[slot] = keys[next];
+				cells[slot] = cells[next];
+				cells[next] = null;
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+	}
+
+	private void resize(int slots)
+	{
+		long[] oldKeys = keys;
+		Cell[] oldCells = cells;
+		keys = new long[slots];
+		cells = new Cell[slots];
+
+		for (int i = 0; i < oldCells.length; i++)
+		{
+			if (oldCells[i] != null)
+			{
+				int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				cells[slot] = oldCells[i];
+			}
+		}
+	}
+
+	/**
+	 * Get the cell containing a coordinate, clamped to a quarter of the
+	 * int range either side of zero so cell loops and counts can't overflow.
+	 */
+	private int toCell(double coordinate)
+	{
+		double cell = Math.floor(coordinate / cellSize);
+		return (int) Math.max(Math.min(cell, Integer.MAX_VALUE >> 2), Integer.MIN_VALUE >> 2);
+	}
+
+	private static long getCellCount(int minCellX, int minCellY, int maxCellX, int maxCellY)
+	{
+		return ((long) maxCellX - minCellX + 1) * ((long) maxCellY - minCellY + 1);
+	}
+
+	/**
+	 * The entries in one cell, in no particular order.
+	 */
+	private static class Cell
+	{
+		private Entry[] entries = new Entry[4];
+		private int size;
+
+		void add(Entry entry)
+		{
+			if (size == entries.length)
+			{
+				entries = Arrays.copyOf(entries, 2 * size);
+			}
+			entries[size++] = entry;
+		}
+
+		/**
+		 * Remove an entry by moving the last entry into its place.
+		 */
+		void remove(Entry entry)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				if (entries[i] == entry)
+				{
+					size--;
+					entries[i] = entries[size];
+					entries[size] = null;
+					return;
+				}
+			}
+		}
+
+		void clear()
+		{
+			Arrays.fill(entries, 0, size, null);
+			size = 0;
+		}
+	}
+
+	/**
+	 * An indexed curve with its bounds and the range of cells they cover.
+	 */
+	private class Entry
+	{
+		private final BezierCurve curve;
+		private final Rectangle2D.Double bounds;
+		private final int minCellX;
+		private final int minCellY;
+		private final int maxCellX;
+		private final int maxCellY;
+
+		/* the stamp of the last query that collected this entry */
+		private int stamp;
+
+		/* the distance to the curve, while a query sorts its hits */
+		private double distance;
+
+		Entry(BezierCurve curve, Rectangle2D.Double bounds)
+		{
+			this.curve = curve;
+			this.bounds = bounds;
+			minCellX = toCell(bounds.getMinX());
+			minCellY = toCell(bounds.getMinY());
+			maxCellX = toCell(bounds.getMaxX());
+			maxCellY = toCell(bounds.getMaxY());
+		}
+
+		boolean isOversized()
+		{
+			return getCellCount(minCellX, minCellY, maxCellX, maxCellY) > MAXIMUM_CELLS;
+		}
+
+		/**
+		 * Get the distance from a point to the curve's bounds,
+		 * a lower bound of the distance to the curve.
+		 */
+		double distanceTo(double x, double y)
+		{
+			double dX = Math.max(Math.max(bounds.getMinX() - x, x - bounds.getMaxX()), 0.0D);
+			double dY = Math.max(Math.max(bounds.getMinY() - y, y - bounds.getMaxY()), 0.0D);
+			return Math.sqrt(dX * dX + dY * dY);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.vince2678.bezier;
+
+import java.lang.management.ManagementFactory;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide metrics for curve generation, exposed over JMX as
+ * {@value #OBJECT_NAME} once {@link #register} is called.
+ * <p>
+ * Metrics are recorded unless the {@code com.vince2678.bezier.metrics}
+ * system property is false, in which case the recording calls compile
+ * away. Callers time an operation by passing the value of {@link #start}
+ * to the matching record method.
+ */
+public class CurveMetrics implements CurveMetricsMXBean
+{
+	public static final String OBJECT_NAME = "com.vince2678.bezier:type=CurveMetrics";
+
+	public static final boolean ENABLED =
+		Boolean.parseBoolean(System.getProperty("com.vince2678.bezier.metrics", "true"));
+
+	private static final Histogram construction = new Histogram();
+	private static final Histogram path = new Histogram();
+	private static final Histogram interpolation = new Histogram();
+	private static final Histogram pathPoints = new Histogram();
+
+	private static final CurveMetrics instance = new CurveMetrics();
+
+	private CurveMetrics()
+	{
+	}
+
+	public static CurveMetrics getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Register the metrics with the platform MBean server. Registering
+	 * more than once has no effect.
+	 * @throws IllegalStateException if the MBean cannot be registered
+	 */
+	public static void register()
+	{
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try
+		{
+			server.registerMBean(instance, new ObjectName(OBJECT_NAME));
+		}
+		catch (InstanceAlreadyExistsException e)
+		{
+			/* already registered */
+		}
+		catch (JMException e)
+		{
+			throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+		}
+	}
+
+	/**
+	 * Get the start time of an operation to record.
+	 * @return the current {@link System#nanoTime}, or 0 if metrics are disabled
+	 */
+	public static long start()
+	{
+		return ENABLED ? System.nanoTime() : 0L;
+	}
+
+	public static void recordConstruction(long start)
+	{
+		if (ENABLED)
+		{
+			construction.record(System.nanoTime() - start);
+		}
+	}
+
+	public static void recordPath(long start)
+	{
+		if (ENABLED)
+		{
+			path.record(System.nanoTime() - start);
+		}
+	}
+
+	public static void recordInterpolation(long start)
+	{
+		if (ENABLED)
+		{
+			interpolation.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Record the size of a generated path.
+	 * @param points the number of points in the path
+	 */
+	public static void recordPathPoints(int points)
+	{
+		if (ENABLED)
+		{
+			pathPoints.record(points);
+		}
+	}
+
+	@Override
+	public Histogram.Snapshot getConstructionLatency()
+	{
+		return construction.getSnapshot();
+	}
+
+	@Override
+	public Histogram.Snapshot getPathLatency()
+	{
+		return path.getSnapshot();
+	}
+
+	@Override
+	public Histogram.Snapshot getInterpolationLatency()
+	{
+		return interpolation.getSnapshot();
+	}
+
+	@Override
+	public Histogram.Snapshot getPathPoints()
+	{
+		return pathPoints.getSnapshot();
+	}
+
+	@Override
+	public CacheStats getFactorialCache()
+	{
+		return MathUtil.getFactorialCacheStats();
+	}
+
+	@Override
+	public CacheStats getPowerCache()
+	{
+		return MathUtil.getPowerCacheStats();
+	}
+
+	@Override
+	public CacheStats getBinomialCache()
+	{
+		return MathUtil.getBinomialCacheStats();
+	}
+
+	@Override
+	public void reset()
+	{
+		construction.reset();
+		path.reset();
+		interpolation.reset();
+		pathPoints.reset();
+		MathUtil.resetCacheStats();
+	}
+}
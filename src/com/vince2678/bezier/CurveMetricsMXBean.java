@@ -0,0 +1,28 @@
+package com.vince2678.bezier;
+
+/**
+ * The management interface of {@link CurveMetrics}.
+ * <p>
+ * Latencies are in nanoseconds.
+ */
+public interface CurveMetricsMXBean
+{
+	Histogram.Snapshot getConstructionLatency();
+
+	Histogram.Snapshot getPathLatency();
+
+	Histogram.Snapshot getInterpolationLatency();
+
+	Histogram.Snapshot getPathPoints();
+
+	CacheStats getFactorialCache();
+
+	CacheStats getPowerCache();
+
+	CacheStats getBinomialCache();
+
+	/**
+	 * Clear the histograms and the cache counters.
+	 */
+	void reset();
+}
@@ -1,143 +1,95 @@
 package com.vince2678.bezier;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.BiFunction;
 import lombok.Getter;
 
-public class FixedSizeHashMap<K, V> extends HashMap<K, V>
+/**
+ * A HashMap holding at most {@link #getCapacity capacity} entries.
+ * <p>
+ * By default the oldest inserted entry is evicted first. In access
+ * order mode the least recently used entry is evicted first, so hot
+ * entries stay cached. Eviction and removal are O(1) in both modes.
+ * <p>
+ * Hits and misses are counted on {@link #get}.
+ */
+public class FixedSizeHashMap<K, V> extends LinkedHashMap<K, V>
 {
-	private Deque<K> deque;
-
 	@Getter
 	private int capacity;
 
+	@Getter
+	private long hits;
+	@Getter
+	private long misses;
+	@Getter
+	private long evictions;
+
 	public FixedSizeHashMap(int capacity)
 	{
-		super(capacity);
-		this.capacity = capacity;
-		deque = new ArrayDeque<K>(capacity);
+		this(capacity, false);
 	}
 
-	public void setCapacity(int capacity)
+	/**
+	 * @param capacity the maximum number of entries
+	 * @param accessOrder true to evict the least recently used entry,
+	 *  false to evict the oldest inserted entry
+	 */
+	public FixedSizeHashMap(int capacity, boolean accessOrder)
 	{
+		super(capacity, 0.75F, accessOrder);
 		this.capacity = capacity;
-		while (deque.size() > capacity)
-		{
-			remove(deque.getFirst());
-		}
 	}
 
-	@Override
-	public V put(K k, V v)
+	public void setCapacity(int capacity)
 	{
-		if (!containsKey(k))
-		{
-			while (deque.size() >= capacity)
-			{
-				remove(deque.getFirst());
-			}
-			deque.addLast(k);
-		}
-		return super.put(k, v);
-	}
+		this.capacity = capacity;
 
-	@Override
-	public V remove(Object k)
-	{
-		V v = super.remove(k);
-		if (v != null)
+		Iterator<K> iterator = keySet().iterator();
+		while (size() > capacity)
 		{
-			deque.remove(k);
+			iterator.next();
+			iterator.remove();
+			evictions++;
 		}
-		return v;
 	}
 
 	@Override
-	public void clear()
+	public V get(Object k)
 	{
-		super.clear();
-		deque.clear();
-	}
-
-	@Override
-	public boolean remove(Object k, Object v)
-	{
-		boolean retval = super.remove(k, v);
-		if (retval)
+		V v = super.get(k);
+		if (v == null && !containsKey(k))
 		{
-			deque.remove(k);
+			misses++;
 		}
-
-		return retval;
-	}
-
-	@Override
-	public void putAll(Map<? extends K, ? extends V> map) throws NullPointerException
-	{
-		if (map == null)
-		{
-			throw new NullPointerException();
-		}
-
-		Set<? extends K> keySet = map.keySet();
-
-		for (K k : keySet)
+		else
 		{
-			put(k, map.get(k));
+			hits++;
 		}
+		return v;
 	}
 
 	@Override
-	public V putIfAbsent(K k, V v)
+	protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
 	{
-		V oldV = get(k);
-		if (containsKey(k) && oldV != null)
+		if (size() > capacity)
 		{
-			return oldV;
+			evictions++;
+			return true;
 		}
-		return put(k, v);
+		return false;
 	}
 
-	@Override
-	public V merge(K k, V v, BiFunction<? super V, ? super V, ? extends V> biFunction)
+	public CacheStats getStats()
 	{
-		V oldValue = get(k);
-
-		V newValue;
-		if (oldValue == null)
-		{
-			newValue = v;
-		}
-		else
-		{
-			newValue = biFunction.apply(oldValue, v);
-		}
-
-		if (newValue == null)
-		{
-			remove(k);
-		}
-		else
-		{
-			put(k, newValue);
-		}
-
-		return newValue;
+		return new CacheStats(hits, misses, evictions, size(), capacity);
 	}
 
-	@Override
-	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> biFunction)
+	public void resetStats()
 	{
-		for (K k : keySet())
-		{
-			V v = get(k);
-
-			V newV = biFunction.apply(k, v);
-			put(k, newV);
-		}
+		hits = 0;
+		misses = 0;
+		evictions = 0;
 	}
 }
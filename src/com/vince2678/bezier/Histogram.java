@@ -0,0 +1,124 @@
+package com.vince2678.bezier;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A lock-free histogram of non-negative long values, such as latencies
+ * in nanoseconds, with one bucket per power of two.
+ * <p>
+ * Recording is a handful of striped adds and never blocks, so it is
+ * cheap enough to leave on, even from every thread of a parallel batch:
+ * each bucket, the sum and the maximum are a {@link LongAdder} or
+ * {@link LongAccumulator}, so threads racing on them don't contend for
+ * a single cache line. Percentiles are reported as the
+ * upper bound of the bucket they fall in, so they are accurate to within
+ * a factor of two. A snapshot taken while values are being recorded may
+ * be off by the values in flight.
+ */
+public class Histogram
+{
+	/* bucket 0 holds 0, bucket i holds [2^(i-1), 2^i - 1] */
+	private static final int BUCKETS = 64;
+
+	private final LongAdder[] buckets;
+	private final LongAdder sum;
+	private final LongAccumulator max;
+
+	public Histogram()
+	{
+		buckets = new LongAdder[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			buckets[i] = new LongAdder();
+		}
+		sum = new LongAdder();
+		max = new LongAccumulator(Math::max, 0L);
+	}
+
+	/**
+	 * Record a value.
+	 * @param value the value. Negative values are recorded as 0.
+	 */
+	public void record(long value)
+	{
+		value = Math.max(value, 0L);
+
+		buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	public Snapshot getSnapshot()
+	{
+		long[] counts = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			counts[i] = buckets[i].sum();
+			count += counts[i];
+		}
+
+		long max = this.max.get();
+		return new Snapshot(count, sum.sum(), max,
+			getPercentile(counts, count, max, 0.5D),
+			getPercentile(counts, count, max, 0.9D),
+			getPercentile(counts, count, max, 0.99D),
+			getPercentile(counts, count, max, 0.999D));
+	}
+
+	private static long getPercentile(long[] counts, long count, long max, double percentile)
+	{
+		long rank = (long) Math.ceil(percentile * count);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			seen += counts[i];
+			if (seen >= rank && seen > 0)
+			{
+				long upper = i == 0 ? 0L : (1L << i) - 1;
+				return Math.min(upper, max);
+			}
+		}
+		return max;
+	}
+
+	public void reset()
+	{
+		for (LongAdder bucket: buckets)
+		{
+			bucket.reset();
+		}
+		sum.reset();
+		max.reset();
+	}
+
+	/**
+	 * A snapshot of a histogram's distribution.
+	 */
+	@Getter
+	@ToString
+	@RequiredArgsConstructor
+	public static class Snapshot
+	{
+		private final long count;
+		private final long sum;
+		private final long max;
+		private final long p50;
+		private final long p90;
+		private final long p99;
+		private final long p999;
+
+		/**
+		 * Get the mean of the recorded values.
+		 * @return the mean, or 0 if nothing was recorded
+		 */
+		public double getMean()
+		{
+			return count == 0 ? 0.0D : (double) sum / count;
+		}
+	}
+}
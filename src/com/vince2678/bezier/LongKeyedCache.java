@@ -0,0 +1,210 @@
+package com.vince2678.bezier;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache from primitive long keys to primitive
+ * values, using open addressing.
+ * <p>
+ * Values are stored as long bits, with typed accessors for int, long and
+ * double values. Lookups allocate nothing and never block: each slot is
+ * guarded by a sequence stamp that readers validate after reading the
+ * slot, and writers that lose a race simply skip caching.
+ * <p>
+ * A key is looked for in {@link #PROBES} consecutive slots from its home
+ * slot. Inserting into a full run of slots evicts one of them at random.
+ * Use {@link #pack} to build a key from two ints.
+ */
+public class LongKeyedCache
+{
+	public static final int PROBES = 8;
+
+	private final long[] keys;
+	private final long[] values;
+
+	/* 0: empty, odd: being written, even: stable */
+	private final AtomicLongArray stamps;
+	private final int mask;
+	private final int shift;
+
+	private final AtomicInteger size;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder evictions;
+
+	/**
+	 * @param capacity the number of entries, rounded up to a power of two
+	 */
+	public LongKeyedCache(int capacity)
+	{
+		int slots = Integer.highestOneBit(Math.max(capacity, PROBES) - 1) << 1;
+
+		keys = new long[slots];
+		values = new long[slots];
+		stamps = new AtomicLongArray(slots);
+		mask = slots - 1;
+		shift = Long.numberOfLeadingZeros(mask);
+
+		size = new AtomicInteger();
+		hits = new LongAdder();
+		misses = new LongAdder();
+		evictions = new LongAdder();
+	}
+
+	/**
+	 * Pack two ints into a key.
+	 * @param a the high half of the key
+	 * @param b the low half of the key
+	 * @return the key
+	 */
+	public static long pack(int a, int b)
+	{
+		return ((long) a << 32) | (b & 0xFFFFFFFFL);
+	}
+
+	public int getInt(long key, int missing)
+	{
+		long bits = getBits(key, missing);
+		return (int) bits;
+	}
+
+	public long getLong(long key, long missing)
+	{
+		return getBits(key, missing);
+	}
+
+	public double getDouble(long key, double missing)
+	{
+		long missingBits = Double.doubleToRawLongBits(missing);
+		long bits = getBits(key, missingBits);
+		return bits == missingBits ? missing : Double.longBitsToDouble(bits);
+	}
+
+	public void putInt(long key, int value)
+	{
+		putBits(key, value);
+	}
+
+	public void putLong(long key, long value)
+	{
+		putBits(key, value);
+	}
+
+	public void putDouble(long key, double value)
+	{
+		putBits(key, Double.doubleToRawLongBits(value));
+	}
+
+	public int size()
+	{
+		return size.get();
+	}
+
+	/**
+	 * Get the number of slots, the requested capacity rounded up to a
+	 * power of two. This is also the capacity reported by {@link #getStats}.
+	 * @return the capacity
+	 */
+	public int getCapacity()
+	{
+		return mask + 1;
+	}
+
+	public CacheStats getStats()
+	{
+		return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size.get(), mask + 1);
+	}
+
+	public void resetStats()
+	{
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	private int home(long key)
+	{
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+	private long getBits(long key, long missing)
+	{
+		int home = home(key);
+		for (int p = 0; p < PROBES; p++)
+		{
+			int i = (home + p) & mask;
+
+			long stamp = stamps.getAcquire(i);
+			if (stamp == 0)
+			{
+				break;
+			}
+
+			long k = keys[i];
+			long v = values[i];
+			VarHandle.acquireFence();
+
+			if (k == key && (stamp & 1) == 0 && stamps.get(i) == stamp)
+			{
+				hits.increment();
+				return v;
+			}
+		}
+
+		misses.increment();
+		return missing;
+	}
+
+	private void putBits(long key, long value)
+	{
+		int home = home(key);
+		int slot = -1;
+		long stamp = 0;
+
+		for (int p = 0; p < PROBES; p++)
+		{
+			int i = (home + p) & mask;
+			long s = stamps.get(i);
+			if (s == 0 || ((s & 1) == 0 && keys[i] == key))
+			{
+				slot = i;
+				stamp = s;
+				break;
+			}
+		}
+
+		boolean evicting = slot < 0;
+		if (evicting)
+		{
+			slot = (home + ThreadLocalRandom.current().nextInt(PROBES)) & mask;
+			stamp = stamps.get(slot);
+			if ((stamp & 1) != 0)
+			{
+				return;
+			}
+		}
+
+		/* a writer that loses the race just doesn't cache its value */
+		if (!stamps.compareAndSet(slot, stamp, stamp + 1))
+		{
+			return;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		stamps.setRelease(slot, stamp + 2);
+
+		if (stamp == 0)
+		{
+			size.incrementAndGet();
+		}
+		else if (evicting)
+		{
+			evictions.increment();
+		}
+	}
+}
@@ -20,6 +20,8 @@ public class Main
 {
 	public static void main(String[] args)
 	{
+		CurveMetrics.register();
+
 		BezierFrame frame = new BezierFrame();
 		Dimension preferred = new Dimension(1366, 768);
 
@@ -1,19 +1,145 @@
 package com.vince2678.bezier;
 
 import java.math.BigInteger;
-import java.util.HashMap;
 
+/**
+ * Cached integer math helpers.
+ * <p>
+ * The caches are {@link ConcurrentFixedSizeHashMap}s and
+ * {@link LongKeyedCache}s, so every method is safe to call
+ * from multiple threads.
+ */
 public class MathUtil
 {
-	private static HashMap<Integer, BigInteger> factorials;
-	private static HashMap<Pair<Integer, Integer>, Integer> coefficients;
-	private static HashMap<Pair<Integer, Integer>, Integer> powers;
+	/**
+	 * The capacity of each cache, set with the
+	 * {@code com.vince2678.bezier.cacheCapacity} system property.
+	 * <p>
+	 * The {@link LongKeyedCache}s round it up to a power of two, so their
+	 * {@link CacheStats} report that rounded capacity: 256 for the default.
+	 */
+	public static final int CACHE_CAPACITY = Integer.getInteger("com.vince2678.bezier.cacheCapacity", 200);
+
+	/**
+	 * The number of rows of Pascal's triangle held in the binomial table.
+	 * Every coefficient up to row 66 fits in a long.
+	 */
+	public static final int BINOMIAL_TABLE_ROWS = 67;
+
+	/**
+	 * The largest n for which n! fits in a long.
+	 */
+	public static final int MAXIMUM_LONG_FACTORIAL = 20;
+
+	private static final long MISSING = Long.MIN_VALUE;
+
+	/* below this many factors, binary splitting just multiplies in a loop */
+	private static final int FACTORIAL_SPLIT_THRESHOLD = 16;
+
+	private static final double[] LANCZOS_COEFFICIENTS = {
+		0.99999999999980993,
+		676.5203681218851,
+		-1259.1392167224028,
+		771.32342877765313,
+		-176.61502916214059,
+		12.507343278686905,
+		-0.13857109526572012,
+		9.9843695780195716e-6,
+		1.5056327351493116e-7,
+	};
+	private static final double LANCZOS_G = 7.0D;
+	private static final double HALF_LOG_TWO_PI = 0.5D * Math.log(2.0D * Math.PI);
+
+	private static final long[] longFactorials;
+
+	private static ConcurrentFixedSizeHashMap<Integer, BigInteger> factorials;
+	private static LongKeyedCache powers;
+	private static LongKeyedCache largeBinomials;
+
+	/**
+	 * Pascal's triangle, flattened row by row: nCk is at n(n+1)/2 + k.
+	 */
+	private static final long[] binomials;
+	private static final double[] binomialsDouble;
 
 	static
 	{
-		factorials = new FixedSizeHashMap<>(200);
-		coefficients = new FixedSizeHashMap<>(200);
-		powers = new FixedSizeHashMap<>(200);
+		longFactorials = new long[MAXIMUM_LONG_FACTORIAL + 1];
+		longFactorials[0] = 1L;
+		for (int n = 1; n <= MAXIMUM_LONG_FACTORIAL; n++)
+		{
+			longFactorials[n] = longFactorials[n - 1] * n;
+		}
+
+		factorials = new ConcurrentFixedSizeHashMap<>(CACHE_CAPACITY);
+		powers = new LongKeyedCache(CACHE_CAPACITY);
+		largeBinomials = new LongKeyedCache(CACHE_CAPACITY);
+
+		int size = BINOMIAL_TABLE_ROWS * (BINOMIAL_TABLE_ROWS + 1) / 2;
+		binomials = new long[size];
+		binomialsDouble = new double[size];
+		for (int n = 0; n < BINOMIAL_TABLE_ROWS; n++)
+		{
+			int row = binomialIndex(n, 0);
+			int prev = binomialIndex(n - 1, 0);
+
+			binomials[row] = 1L;
+			binomials[row + n] = 1L;
+			for (int k = 1; k < n; k++)
+			{
+				binomials[row + k] = binomials[prev + k - 1] + binomials[prev + k];
+			}
+		}
+		for (int i = 0; i < size; i++)
+		{
+			binomialsDouble[i] = binomials[i];
+		}
+	}
+
+	private static int binomialIndex(int n, int k)
+	{
+		return n * (n + 1) / 2 + k;
+	}
+
+	public static CacheStats getFactorialCacheStats()
+	{
+		return factorials.getStats();
+	}
+
+	public static CacheStats getPowerCacheStats()
+	{
+		return powers.getStats();
+	}
+
+	/**
+	 * Get the statistics of the cache of binomial coefficients
+	 * beyond the table, see {@link #BINOMIAL_TABLE_ROWS}.
+	 * @return the cache statistics
+	 */
+	public static CacheStats getBinomialCacheStats()
+	{
+		return largeBinomials.getStats();
+	}
+
+	/**
+	 * Reset the hit, miss and eviction counters of every cache.
+	 */
+	public static void resetCacheStats()
+	{
+		factorials.resetStats();
+		powers.resetStats();
+		largeBinomials.resetStats();
+	}
+
+	private static void commit(CurveEvents.CacheMissEvent event, String cache, int n, int k)
+	{
+		if (event.shouldCommit())
+		{
+			event.cache = cache;
+			event.n = n;
+			event.k = k;
+			event.commit();
+		}
 	}
 
 	/**
@@ -40,78 +166,288 @@ public class MathUtil
 			return a;
 		}
 
-		Pair<Integer, Integer> key = new Pair<>(a, b);
-		if (powers.containsKey(key))
+		long key = LongKeyedCache.pack(a, b);
+		long cached = powers.getLong(key, MISSING);
+		if (cached != MISSING)
 		{
-			return powers.get(key);
+			return (int) cached;
 		}
 
+		CurveEvents.CacheMissEvent event = new CurveEvents.CacheMissEvent();
+		event.begin();
+
 		int power = pow(a, b - 1) * a;
-		powers.put(key, power);
+		powers.putLong(key, power);
+
+		commit(event, "power", a, b);
 
 		return power;
 	}
 
 	/**
 	 * Get the factorial of n
+	 * <p>
+	 * Values up to {@link #MAXIMUM_LONG_FACTORIAL} come from a table.
+	 * Larger values are computed by binary splitting, multiplying
+	 * balanced halves of the range so the operands stay similar in size.
 	 * @param n integer in interval [0, infinity)
-	 * @return the factorial, n!
+	 * @return the factorial, n!, or 0 if n is negative
 	 */
 	public static BigInteger factorial(int n)
 	{
 		if (n < 0)
 		{
-			return new BigInteger("0");
+			return BigInteger.ZERO;
 		}
-		else if (n <= 1)
+		else if (n <= MAXIMUM_LONG_FACTORIAL)
 		{
-			return new BigInteger("1");
+			return BigInteger.valueOf(longFactorials[n]);
 		}
-		else if (n == 2)
-		{
-			return new BigInteger("2");
-		}
-		else if (factorials.containsKey(n))
+
+		BigInteger cached = factorials.get(n);
+		if (cached != null)
 		{
-			return factorials.get(n);
+			return cached;
 		}
 
-		BigInteger fac = factorial(n - 1).multiply(new BigInteger(Integer.toString(n)));
+		CurveEvents.CacheMissEvent event = new CurveEvents.CacheMissEvent();
+		event.begin();
+
+		BigInteger fac = BigInteger.valueOf(longFactorials[MAXIMUM_LONG_FACTORIAL])
+			.multiply(product(MAXIMUM_LONG_FACTORIAL, n));
 		factorials.put(n, fac);
 
+		commit(event, "factorial", n, 0);
+
 		return fac;
 	}
 
+	/**
+	 * Get the product of the integers in (lower, upper].
+	 */
+	private static BigInteger product(int lower, int upper)
+	{
+		if (upper - lower <= FACTORIAL_SPLIT_THRESHOLD)
+		{
+			BigInteger result = BigInteger.ONE;
+			for (int i = lower + 1; i <= upper; i++)
+			{
+				result = result.multiply(BigInteger.valueOf(i));
+			}
+			return result;
+		}
+
+		int mid = (lower + upper) >>> 1;
+		return product(lower, mid).multiply(product(mid, upper));
+	}
+
+	/**
+	 * Get the factorial of n
+	 * @param n integer in interval [0, {@link #MAXIMUM_LONG_FACTORIAL}]
+	 * @return the factorial, n!, or 0 if n is negative
+	 * @throws ArithmeticException if n! does not fit in a long
+	 */
+	public static long factorialLong(int n)
+	{
+		if (n < 0)
+		{
+			return 0L;
+		}
+		else if (n > MAXIMUM_LONG_FACTORIAL)
+		{
+			throw new ArithmeticException("long overflow");
+		}
+
+		return longFactorials[n];
+	}
+
+	/**
+	 * Get an approximation of the factorial of n
+	 * <p>
+	 * Exact up to {@link #MAXIMUM_LONG_FACTORIAL}, and accurate to
+	 * about 1e-13 relative error beyond. Overflows to infinity past 170.
+	 * @param n integer in interval [0, infinity)
+	 * @return the factorial, n!, or 0 if n is negative
+	 */
+	public static double factorialDouble(int n)
+	{
+		if (n < 0)
+		{
+			return 0.0D;
+		}
+		else if (n <= MAXIMUM_LONG_FACTORIAL)
+		{
+			return longFactorials[n];
+		}
+
+		return Math.exp(logFactorial(n));
+	}
+
+	/**
+	 * Get the natural logarithm of the factorial of n
+	 * <p>
+	 * Use this for ratios of factorials, such as binomial coefficients,
+	 * which would overflow if computed directly:
+	 * nCk = exp(logFactorial(n) - logFactorial(k) - logFactorial(n - k)).
+	 * @param n integer in interval [0, infinity)
+	 * @return ln(n!)
+	 */
+	public static double logFactorial(int n)
+	{
+		if (n < 0)
+		{
+			return Double.NaN;
+		}
+		else if (n <= MAXIMUM_LONG_FACTORIAL)
+		{
+			return Math.log(longFactorials[n]);
+		}
+
+		return lnGamma(n + 1.0D);
+	}
+
+	/**
+	 * Get the natural logarithm of the gamma function,
+	 * using the Lanczos approximation.
+	 * @param x real number in interval (0, infinity)
+	 * @return ln(&Gamma;(x)), accurate to about 15 significant digits
+	 */
+	public static double lnGamma(double x)
+	{
+		if (x < 0.5D)
+		{
+			/* reflection formula */
+			return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - lnGamma(1.0D - x);
+		}
+
+		x -= 1.0D;
+		double sum = LANCZOS_COEFFICIENTS[0];
+		for (int i = 1; i < LANCZOS_COEFFICIENTS.length; i++)
+		{
+			sum += LANCZOS_COEFFICIENTS[i] / (x + i);
+		}
+
+		double t = x + LANCZOS_G + 0.5D;
+		return HALF_LOG_TWO_PI + (x + 0.5D) * Math.log(t) - t + Math.log(sum);
+	}
+
 	/**
 	 * Get the binomial coefficient for indices n, k, n >= k.
 	 * @param n integer in interval [0, infinity)
 	 * @param k integer in interval [0, infinity)
-	 * @return the coefficient.
+	 * @return the coefficient, or 0 if k &gt; n.
+	 * @throws ArithmeticException if the coefficient does not fit in an int
 	 */
 	public static int nCk(int n, int k)
 	{
-		if (n == k || k == 0)
+		return Math.toIntExact(nCkLong(n, k));
+	}
+
+	/**
+	 * Get the binomial coefficient for indices n, k, n >= k.
+	 * <p>
+	 * Rows up to {@link #BINOMIAL_TABLE_ROWS} are a table lookup.
+	 * @param n integer in interval [0, infinity)
+	 * @param k integer in interval [0, infinity)
+	 * @return the coefficient, or 0 if k &gt; n.
+	 * @throws ArithmeticException if the coefficient does not fit in a long
+	 */
+	public static long nCkLong(int n, int k)
+	{
+		if (k < 0 || k > n)
 		{
-			return 1;
+			return 0L;
+		}
+		else if (n < BINOMIAL_TABLE_ROWS)
+		{
+			return binomials[binomialIndex(n, k)];
+		}
+
+		return nCkExact(n, k).longValueExact();
+	}
+
+	/**
+	 * Get the binomial coefficient for indices n, k, n >= k, as a double.
+	 * <p>
+	 * Rows up to {@link #BINOMIAL_TABLE_ROWS} are a table lookup and exact
+	 * to double precision. Larger rows are computed with the multiplicative
+	 * formula, with a relative error of about k ulps.
+	 * @param n integer in interval [0, infinity)
+	 * @param k integer in interval [0, infinity)
+	 * @return the coefficient, or 0 if k &gt; n.
+	 */
+	public static double nCkDouble(int n, int k)
+	{
+		if (k < 0 || k > n)
+		{
+			return 0.0D;
+		}
+		else if (n < BINOMIAL_TABLE_ROWS)
+		{
+			return binomialsDouble[binomialIndex(n, k)];
+		}
+
+		k = Math.min(k, n - k);
+		long key = LongKeyedCache.pack(n, k);
+		double cached = largeBinomials.getDouble(key, Double.NaN);
+		if (!Double.isNaN(cached))
+		{
+			return cached;
+		}
+
+		CurveEvents.CacheMissEvent event = new CurveEvents.CacheMissEvent();
+		event.begin();
+
+		double coefficient = 1.0D;
+		for (int i = 1; i <= k; i++)
+		{
+			coefficient = coefficient * (n - k + i) / i;
 		}
+		coefficient = Math.rint(coefficient);
+		largeBinomials.putDouble(key, coefficient);
+
+		commit(event, "binomial", n, k);
+
+		return coefficient;
+	}
 
-		Pair<Integer, Integer> key = new Pair<>(n, k);
-		if (coefficients.containsKey(key))
+	/**
+	 * Get the exact binomial coefficient for indices n, k, n >= k.
+	 * @param n integer in interval [0, infinity)
+	 * @param k integer in interval [0, infinity)
+	 * @return the coefficient, or 0 if k &gt; n.
+	 */
+	public static BigInteger nCkExact(int n, int k)
+	{
+		if (k < 0 || k > n)
 		{
-			return coefficients.get(key);
+			return BigInteger.ZERO;
+		}
+		else if (n < BINOMIAL_TABLE_ROWS)
+		{
+			return BigInteger.valueOf(binomials[binomialIndex(n, k)]);
 		}
 
-		int coefficient = nCk(n - 1, k) + nCk(n - 1, k - 1);
-		coefficients.put(key, coefficient);
+		/* each partial product is itself a binomial coefficient, so the division is exact */
+		k = Math.min(k, n - k);
+		BigInteger coefficient = BigInteger.ONE;
+		for (int i = 1; i <= k; i++)
+		{
+			coefficient = coefficient.multiply(BigInteger.valueOf(n - k + i))
+				.divide(BigInteger.valueOf(i));
+		}
 
 		return coefficient;
 	}
 
 	/**
 	 * Get the binomial coefficient for indices n, k, n >= k.
+	 * <p>
+	 * Use {@link #nCkDouble} for rows whose coefficients exceed an int.
 	 * @param n integer in interval [0, infinity)
 	 * @param k integer in interval [0, infinity)
 	 * @return the coefficient.
+	 * @throws ArithmeticException if the coefficient does not fit in an int
 	 */
 	public static int choose(int n, int k)
 	{
@@ -0,0 +1,202 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable path of integer points, stored as two primitive
+ * coordinate arrays instead of one {@link Point} per pixel.
+ * <p>
+ * Buffers are meant to be reused: {@link #clear} keeps the
+ * allocated capacity. As a {@link PointVisitor} a buffer appends
+ * every point it visits.
+ */
+public class PathBuffer implements PointVisitor
+{
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private int[] xs;
+	private int[] ys;
+	private int size;
+
+	public PathBuffer()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public PathBuffer(int capacity)
+	{
+		capacity = Math.max(capacity, 1);
+		xs = new int[capacity];
+		ys = new int[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Create a buffer holding the points of a path.
+	 * @param path the path to copy
+	 * @return a new buffer
+	 */
+	public static PathBuffer fromList(List<Point> path)
+	{
+		PathBuffer buffer = new PathBuffer(path.size());
+		for (Point p: path)
+		{
+			buffer.add(p.x, p.y);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Pack a point into a long, x in the high half and y in the low half.
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the packed point
+	 */
+	public static long pack(int x, int y)
+	{
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	public static int unpackX(long point)
+	{
+		return (int) (point >> 32);
+	}
+
+	public static int unpackY(long point)
+	{
+		return (int) point;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public int getX(int i)
+	{
+		checkIndex(i);
+		return xs[i];
+	}
+
+	public int getY(int i)
+	{
+		checkIndex(i);
+		return ys[i];
+	}
+
+	public int getLastX()
+	{
+		return getX(size - 1);
+	}
+
+	public int getLastY()
+	{
+		return getY(size - 1);
+	}
+
+	/**
+	 * Get the point at index i as a new {@link Point}.
+	 * @param i the index
+	 * @return the point
+	 */
+	public Point get(int i)
+	{
+		checkIndex(i);
+		return new Point(xs[i], ys[i]);
+	}
+
+	public void add(int x, int y)
+	{
+		if (size == xs.length)
+		{
+			ensureCapacity(size + 1);
+		}
+		xs[size] = x;
+		ys[size] = y;
+		size++;
+	}
+
+	@Override
+	public void visit(int x, int y)
+	{
+		add(x, y);
+	}
+
+	/**
+	 * Add a point unless it equals the last point of the path.
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return true if the point was added
+	 */
+	public boolean addDistinct(int x, int y)
+	{
+		if (size > 0 && xs[size - 1] == x && ys[size - 1] == y)
+		{
+			return false;
+		}
+		add(x, y);
+		return true;
+	}
+
+	public void addAll(PathBuffer other)
+	{
+		ensureCapacity(size + other.size);
+		System.arraycopy(other.xs, 0, xs, size, other.size);
+		System.arraycopy(other.ys, 0, ys, size, other.size);
+		size += other.size;
+	}
+
+	public void removeLast()
+	{
+		checkIndex(size - 1);
+		size--;
+	}
+
+	/**
+	 * Remove all points, keeping the allocated capacity.
+	 */
+	public void clear()
+	{
+		size = 0;
+	}
+
+	public void ensureCapacity(int capacity)
+	{
+		if (capacity > xs.length)
+		{
+			int newCapacity = Math.max(capacity, xs.length + (xs.length >> 1));
+			xs = Arrays.copyOf(xs, newCapacity);
+			ys = Arrays.copyOf(ys, newCapacity);
+		}
+	}
+
+	/**
+	 * Copy the path into a list of {@link Point}s.
+	 * @return the path as a list
+	 */
+	public List<Point> toList()
+	{
+		List<Point> path = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+		{
+			path.add(new Point(xs[i], ys[i]));
+		}
+		return path;
+	}
+
+	private void checkIndex(int i)
+	{
+		if (i < 0 || i >= size)
+		{
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+	}
+}
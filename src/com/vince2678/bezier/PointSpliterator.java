@@ -0,0 +1,135 @@
+package com.vince2678.bezier;
+
+import java.awt.Point;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * A lazy, splittable sequence of the points {@link BezierCurve.PathMode#SAMPLED}
+ * would put on a path, packed with {@link PathBuffer#pack}.
+ * <p>
+ * Sample 0 is the first endpoint, samples 1 to n - 2 are the curve at
+ * t = k * timeStep, and sample n - 1 is the last endpoint. The time step
+ * is held as a decimal fraction so every t is the correctly rounded
+ * double of the exact decimal t the {@link java.math.BigDecimal} loop
+ * of the sampled path mode reaches. Consecutive
+ * duplicates are skipped, as in {@link BezierCurve#getPath}. A split
+ * that starts mid-curve evaluates the sample before it on first use,
+ * so duplicates are skipped across split boundaries too.
+ */
+class PointSpliterator implements Spliterator.OfLong
+{
+	/* below this many samples, splitting costs more than it saves */
+	static final int MINIMUM_SPLIT = 256;
+
+	private final BezierCurve curve;
+	private final long stepNumerator;
+	private final double stepDenominator;
+	private final int last;
+	private final double[] out;
+
+	private int index;
+	private int end;
+
+	private boolean hasPrev;
+	private int prevX;
+	private int prevY;
+
+	/**
+	 * @param curve the curve to sample
+	 * @param stepNumerator the unscaled value of the decimal time step
+	 * @param stepDenominator the power of ten the time step is scaled by
+	 * @param samples the number of samples strictly inside (0, 1)
+	 */
+	PointSpliterator(BezierCurve curve, long stepNumerator, double stepDenominator, int samples)
+	{
+		this(curve, stepNumerator, stepDenominator, samples + 1, 0, samples + 2);
+	}
+
+	private PointSpliterator(BezierCurve curve, long stepNumerator, double stepDenominator, int last, int index,
+		int end)
+	{
+		this.curve = curve;
+		this.stepNumerator = stepNumerator;
+		this.stepDenominator = stepDenominator;
+		this.last = last;
+		this.index = index;
+		this.end = end;
+		this.out = new double[2];
+	}
+
+	private long sample(int k)
+	{
+		if (k == 0 || k == last)
+		{
+			Point p = curve.getControlPoint(k == 0 ? 0 : curve.getControlPointCount() - 1);
+			return PathBuffer.pack(p.x, p.y);
+		}
+
+		/* both operands are exact, so the quotient is correctly rounded */
+		curve.solve((k * stepNumerator) / stepDenominator, out);
+		return PathBuffer.pack((int) Math.ceil(out[0]), (int) Math.ceil(out[1]));
+	}
+
+	@Override
+	public boolean tryAdvance(LongConsumer action)
+	{
+		if (!hasPrev && index > 0 && index < end)
+		{
+			long prev = sample(index - 1);
+			prevX = PathBuffer.unpackX(prev);
+			prevY = PathBuffer.unpackY(prev);
+			hasPrev = true;
+		}
+
+		while (index < end)
+		{
+			long point = sample(index++);
+			int x = PathBuffer.unpackX(point);
+			int y = PathBuffer.unpackY(point);
+
+			if (!hasPrev || x != prevX || y != prevY)
+			{
+				hasPrev = true;
+				prevX = x;
+				prevY = y;
+				action.accept(point);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Spliterator.OfLong trySplit()
+	{
+		int remaining = end - index;
+		if (remaining < 2 * MINIMUM_SPLIT)
+		{
+			return null;
+		}
+
+		int mid = index + (remaining >>> 1);
+		PointSpliterator prefix = new PointSpliterator(curve, stepNumerator, stepDenominator, last, index, mid);
+		prefix.hasPrev = hasPrev;
+		prefix.prevX = prevX;
+		prefix.prevY = prevY;
+
+		index = mid;
+		hasPrev = false;
+
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize()
+	{
+		return end - index;
+	}
+
+	@Override
+	public int characteristics()
+	{
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+}
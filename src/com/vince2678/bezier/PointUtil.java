@@ -4,8 +4,12 @@ import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 
@@ -29,7 +33,18 @@ public class PointUtil
 	 */
 	public static Point getRandomBoundPoint(Rectangle bounds)
 	{
-		return getRandomBoundPoint(bounds, new Dimension(0 , 0));
+		return getRandomBoundPoint(bounds, ThreadLocalRandom.current());
+	}
+
+	/** Return a random point lying in a rectangular region
+	 *
+	 * @param bounds Rectangle defining coordinates and area of region
+	 * @param random the source of randomness
+	 * @return Point contained in Rectangle
+	 */
+	public static Point getRandomBoundPoint(Rectangle bounds, RandomGenerator random)
+	{
+		return getRandomBoundPoint(bounds, new Dimension(0 , 0), random);
 	}
 
 	/** Return a random point lying in a rectangular region
@@ -43,6 +58,22 @@ public class PointUtil
 	 * @return Point contained in Rectangle
 	 */
 	public static Point getRandomBoundPoint(Rectangle bounds, double widthPc, double heightPc)
+	{
+		return getRandomBoundPoint(bounds, widthPc, heightPc, ThreadLocalRandom.current());
+	}
+
+	/** Return a random point lying in a rectangular region
+	 * <p>
+	 *  If invalid values of widthPc and/or heightPc are passed (< 0.0 or >1.0),
+	 *  no points will be excluded.
+	 *
+	 * @param bounds Rectangle defining coordinates and area of region
+	 * @param widthPc Percent about either end of x-axis to exclude from consideration
+	 * @param heightPc Percent about either end of y-axis to exclude from consideration
+	 * @param random the source of randomness
+	 * @return Point contained in Rectangle
+	 */
+	public static Point getRandomBoundPoint(Rectangle bounds, double widthPc, double heightPc, RandomGenerator random)
 	{
 		if (widthPc < 0F || widthPc > 1F)
 		{
@@ -56,7 +87,7 @@ public class PointUtil
 
 		int borderWidth = (int) Math.floor(bounds.width * widthPc);
 		int borderHeight = (int) Math.floor(bounds.height * heightPc);
-		return getRandomBoundPoint(bounds, new Dimension(borderWidth, borderHeight));
+		return getRandomBoundPoint(bounds, new Dimension(borderWidth, borderHeight), random);
 	}
 
 	/** Return a random point lying in a rectangular region
@@ -69,6 +100,21 @@ public class PointUtil
 	 * @return Point contained in Rectangle
 	 */
 	public static Point getRandomBoundPoint(Rectangle bounds, Dimension exclusionBorder)
+	{
+		return getRandomBoundPoint(bounds, exclusionBorder, ThreadLocalRandom.current());
+	}
+
+	/** Return a random point lying in a rectangular region
+	 * <p>
+	 *  If invalid values are set for width and height in the Dimension,
+	 *  no points will be excluded.
+	 *
+	 * @param bounds Rectangle defining coordinates and area of region
+	 * @param exclusionBorder Border about axes to exclude from consideration
+	 * @param random the source of randomness
+	 * @return Point contained in Rectangle
+	 */
+	public static Point getRandomBoundPoint(Rectangle bounds, Dimension exclusionBorder, RandomGenerator random)
 	{
 		int x = bounds.x;
 		int y = bounds.y;
@@ -87,7 +133,7 @@ public class PointUtil
 		}
 		else
 		{
-			dX = ThreadLocalRandom.current().nextInt(origin, bound);
+			dX = random.nextInt(origin, bound);
 			if (dX < 0 || dX > bounds.width)
 			{
 				dX = 0;
@@ -102,7 +148,7 @@ public class PointUtil
 		}
 		else
 		{
-			dY = ThreadLocalRandom.current().nextInt(origin, bound);
+			dY = random.nextInt(origin, bound);
 			if (dY < 0 || dY > bounds.height)
 			{
 				dY = 0;
@@ -112,6 +158,206 @@ public class PointUtil
 		return new Point(x + dX, y + dY);
 	}
 
+	/**
+	 * Return distinct random points lying in a rectangular region
+	 * <p>
+	 *  Every subset of count points in the region, other than the
+	 *  excluded points, is equally likely, and the points are returned
+	 *  in random order. Points are drawn with Floyd's algorithm, in
+	 *  expected O(count) time however close count is to the area.
+	 *
+	 * @param bounds Rectangle defining coordinates and area of region
+	 * @param count the number of points to return
+	 * @param excluded points which must not be returned
+	 * @return count distinct points contained in Rectangle, or every
+	 *  non-excluded point if the region has fewer than count of them
+	 */
+	public static List<Point> sampleDistinctPoints(Rectangle bounds, int count, Point... excluded)
+	{
+		return sampleDistinctPoints(bounds, count, ThreadLocalRandom.current(), excluded);
+	}
+
+	/**
+	 * Return distinct random points lying in a rectangular region
+	 *
+	 * @param bounds Rectangle defining coordinates and area of region
+	 * @param count the number of points to return
+	 * @param random the source of randomness
+	 * @param excluded points which must not be returned
+	 * @return count distinct points contained in Rectangle
+	 * @see #sampleDistinctPoints(Rectangle, int, Point...)
+	 */
+	public static List<Point> sampleDistinctPoints(Rectangle bounds, int count, RandomGenerator random, Point... excluded)
+	{
+		long area = (long) Math.max(bounds.width, 0) * Math.max(bounds.height, 0);
+
+		Set<Long> exclusions = new HashSet<>();
+		for (Point p: excluded)
+		{
+			if (containsIndex(bounds, p))
+			{
+				exclusions.add(toIndex(bounds, p));
+			}
+		}
+
+		long draws = Math.min(area, (long) count + exclusions.size());
+
+		Set<Long> chosen = new HashSet<>();
+		List<Point> points = new ArrayList<>();
+
+		for (long j = area - draws; j < area; j++)
+		{
+			long index = random.nextLong(j + 1);
+			if (!chosen.add(index))
+			{
+				index = j;
+				chosen.add(index);
+			}
+			if (!exclusions.contains(index))
+			{
+				points.add(fromIndex(bounds, index));
+			}
+		}
+
+		/* Floyd's order isn't uniform, and dropping exclusions may leave extras */
+		shuffle(points, random);
+		if (points.size() > count)
+		{
+			points.subList(count, points.size()).clear();
+		}
+
+		return points;
+	}
+
+	/**
+	 * Return distinct points lying in a rectangular region, spread
+	 * evenly by a Halton low-discrepancy sequence in bases 2 and 3
+	 * <p>
+	 *  The sequence starts at a random index, so successive calls
+	 *  return different points. If rounding to pixels makes the sequence
+	 *  run out of new points, the rest are sampled uniformly.
+	 *
+	 * @param bounds Rectangle defining coordinates and area of region
+	 * @param count the number of points to return
+	 * @param excluded points which must not be returned
+	 * @return count distinct points contained in Rectangle, or every
+	 *  non-excluded point if the region has fewer than count of them
+	 */
+	public static List<Point> haltonPoints(Rectangle bounds, int count, Point... excluded)
+	{
+		return haltonPoints(bounds, count, ThreadLocalRandom.current(), excluded);
+	}
+
+	/**
+	 * Return distinct points lying in a rectangular region, spread
+	 * evenly by a Halton low-discrepancy sequence in bases 2 and 3
+	 *
+	 * @param bounds Rectangle defining coordinates and area of region
+	 * @param count the number of points to return
+	 * @param random the source of randomness for the starting index
+	 * @param excluded points which must not be returned
+	 * @return count distinct points contained in Rectangle
+	 * @see #haltonPoints(Rectangle, int, Point...)
+	 */
+	public static List<Point> haltonPoints(Rectangle bounds, int count, RandomGenerator random, Point... excluded)
+	{
+		Set<Long> taken = new HashSet<>();
+		for (Point p: excluded)
+		{
+			if (containsIndex(bounds, p))
+			{
+				taken.add(toIndex(bounds, p));
+			}
+		}
+
+		List<Point> points = new ArrayList<>();
+		if (bounds.width <= 0 || bounds.height <= 0)
+		{
+			return points;
+		}
+
+		int start = random.nextInt(1, 1 << 20);
+		int attempts = 4 * count + 64;
+
+		for (int i = start; points.size() < count && i - start < attempts; i++)
+		{
+			int dX = (int) (radicalInverse(i, 2) * bounds.width);
+			int dY = (int) (radicalInverse(i, 3) * bounds.height);
+			Point p = new Point(bounds.x + dX, bounds.y + dY);
+
+			if (taken.add(toIndex(bounds, p)))
+			{
+				points.add(p);
+			}
+		}
+
+		if (points.size() < count)
+		{
+			List<Point> exclusions = new ArrayList<>(points);
+			Collections.addAll(exclusions, excluded);
+			points.addAll(sampleDistinctPoints(bounds, count - points.size(), random, exclusions.toArray(new Point[0])));
+		}
+
+		return points;
+	}
+
+	/**
+	 * Shuffle a list in place with the Fisher-Yates algorithm.
+	 * @param list the list to shuffle
+	 * @param random the source of randomness
+	 */
+	public static <T> void shuffle(List<T> list, RandomGenerator random)
+	{
+		for (int i = list.size() - 1; i > 0; i--)
+		{
+			Collections.swap(list, i, random.nextInt(i + 1));
+		}
+	}
+
+	/**
+	 * Get the van der Corput radical inverse of i in the given base.
+	 * @param i the index, in interval [0, infinity)
+	 * @param base the base
+	 * @return the radical inverse, in interval [0.0, 1.0)
+	 */
+	public static double radicalInverse(int i, int base)
+	{
+		double inverse = 0.0D;
+		double digit = 1.0D / base;
+		double scale = digit;
+
+		while (i > 0)
+		{
+			inverse += (i % base) * scale;
+			i /= base;
+			scale *= digit;
+		}
+
+		return inverse;
+	}
+
+	/**
+	 * Check whether p lies in the half-open region [x, x + width) by
+	 * [y, y + height) that the samplers draw from.
+	 */
+	private static boolean containsIndex(Rectangle bounds, Point p)
+	{
+		return p.x >= bounds.x && p.x < bounds.x + bounds.width
+			&& p.y >= bounds.y && p.y < bounds.y + bounds.height;
+	}
+
+	private static long toIndex(Rectangle bounds, Point p)
+	{
+		return (long) (p.y - bounds.y) * bounds.width + (p.x - bounds.x);
+	}
+
+	private static Point fromIndex(Rectangle bounds, long index)
+	{
+		int dX = (int) (index % bounds.width);
+		int dY = (int) (index / bounds.width);
+		return new Point(bounds.x + dX, bounds.y + dY);
+	}
+
 	/**
 	 * Convert a path relative to reference to an absolute path.
 	 * @param path the relative path
@@ -125,6 +371,25 @@ public class PointUtil
 			.collect(Collectors.toList());
 	}
 
+	/**
+	 * Convert a path relative to reference to an absolute path.
+	 * @param path the relative path
+	 * @param reference the reference (origin) point
+	 * @param out the buffer receiving the absolute path. It is cleared first,
+	 *  and must not be path.
+	 */
+	public static void relativeToAbsolute(PathBuffer path, Point reference, PathBuffer out)
+	{
+		int len = path.size();
+		out.clear();
+		out.ensureCapacity(len);
+
+		for (int i = 0; i < len; i++)
+		{
+			out.add(path.getX(i) + reference.x, path.getY(i) + reference.y);
+		}
+	}
+
 	/**
 	 * Get the length of a path.
 	 * @param path the path to check
@@ -153,6 +418,26 @@ public class PointUtil
 		return length;
 	}
 
+	/**
+	 * Get the length of a path.
+	 * @param path the path to check
+	 * @return the length of path
+	 */
+	public static double pathLength(PathBuffer path)
+	{
+		double length = 0D;
+		int len = path.size();
+
+		for (int i = 1; i < len; i++)
+		{
+			double dX = path.getX(i) - path.getX(i - 1);
+			double dY = path.getY(i) - path.getY(i - 1);
+			length += Math.sqrt(dX * dX + dY * dY);
+		}
+
+		return length;
+	}
+
 	/**
 	 * Rotate the path by the given angle
 	 * @param path the path to rotate
@@ -174,6 +459,31 @@ public class PointUtil
 		return rotated;
 	}
 
+	/**
+	 * Rotate the path by the given angle
+	 * @param path the path to rotate
+	 * @param angle the angle of rotation
+	 * @param out the buffer receiving the rotated path. It is cleared first,
+	 *  and must not be path.
+	 */
+	public static void rotatePath(PathBuffer path, Rotation angle, PathBuffer out)
+	{
+		int len = path.size();
+		out.clear();
+		out.ensureCapacity(len);
+
+		for (int i = 0; i < len; i++)
+		{
+			int pX = path.getX(i);
+			int pY = path.getY(i);
+
+			int x = (pX * angle.cosine) - (pY * angle.sine);
+			int y = (pX * angle.sine) + (pY * angle.cosine);
+
+			out.add(x, y);
+		}
+	}
+
 	/**
 	 * Calculate the sum of two Points
 	 * @param p1 the first point
@@ -209,24 +519,97 @@ public class PointUtil
 			return path;
 		}
 
-		List<Point> extendedPath = new ArrayList<>();
+		PathBuffer extendedPath = new PathBuffer();
+		interpolatePath(PathBuffer.fromList(path), extendedPath);
 
-		int i = 0;
-		Point prev = path.get(i).getLocation();
+		return extendedPath.toList();
+	}
 
-		i += 1;
-		while (i < len)
+	/**
+	 * Interpolate path using bresenham algorithm
+	 * <p>
+	 * The path is walked once, and out grows as points are added, so a
+	 * reused buffer that is already large enough allocates nothing.
+	 * @param path path to interpolate
+	 * @param out the buffer receiving the interpolated path. It is cleared
+	 *  first, and must not be path.
+	 */
+	public static void interpolatePath(PathBuffer path, PathBuffer out)
+	{
+		out.clear();
+		interpolatePath(path, (PointVisitor) out);
+	}
+
+	/**
+	 * Interpolate path using bresenham algorithm, visiting every point
+	 * of the interpolated path in order.
+	 * <p>
+	 * The polyline is walked in one pass. Each segment is rasterized
+	 * without its last point, which is the first point of the next
+	 * segment, so no point is visited twice and nothing is allocated.
+	 *
+	 * @param path path to interpolate
+	 * @param visitor the visitor receiving the interpolated path
+	 */
+	public static void interpolatePath(PathBuffer path, PointVisitor visitor)
+	{
+		int len = path.size();
+		if (len == 0)
 		{
-			Point curr = path.get(i).getLocation();
-			extendedPath.addAll(bresenhamPath(prev, curr));
-			extendedPath.remove(extendedPath.size() - 1);
+			return;
+		}
 
-			prev = curr;
-			i += 1;
+		long start = CurveMetrics.start();
+		CurveEvents.InterpolationEvent event = new CurveEvents.InterpolationEvent();
+		event.begin();
+
+		int points = 1;
+		int prevX = path.getX(0);
+		int prevY = path.getY(0);
+		for (int i = 1; i < len; i++)
+		{
+			int x = path.getX(i);
+			int y = path.getY(i);
+			points += bresenham(prevX, prevY, x, y, false, visitor);
+
+			prevX = x;
+			prevY = y;
+		}
+		visitor.visit(prevX, prevY);
+
+		CurveMetrics.recordInterpolation(start);
+		if (event.shouldCommit())
+		{
+			event.inputPoints = len;
+			event.points = points;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Get the number of points in the interpolated path.
+	 * <p>
+	 * Use it to size a buffer ahead of interpolating into it; the
+	 * interpolation itself does not need it.
+	 * @param path path to interpolate
+	 * @return the size of the path {@link #interpolatePath} produces
+	 */
+	public static int interpolatedSize(PathBuffer path)
+	{
+		int len = path.size();
+		if (len == 0)
+		{
+			return 0;
 		}
-		extendedPath.add(prev);
 
-		return extendedPath;
+		long size = 1;
+		for (int i = 1; i < len; i++)
+		{
+			int w = Math.abs(path.getX(i) - path.getX(i - 1));
+			int h = Math.abs(path.getY(i) - path.getY(i - 1));
+			size += Math.max(w, h);
+		}
+		return Math.toIntExact(size);
 	}
 
 	public static List<Point> bresenhamPath(Point p1, Point p2)
@@ -236,42 +619,55 @@ public class PointUtil
 
 	public static List<Point> bresenhamPath(int x1, int y1, int x2, int y2)
 	{
-		List<Point> path = new ArrayList<>();
+		PathBuffer path = new PathBuffer();
+		bresenhamPath(x1, y1, x2, y2, path);
 
-		int w = x2 - x1;
-		int h = y2 - y1;
+		return path.toList();
+	}
 
-		int dx1 = 0;
-		int dy1 = 0;
-		int dx2 = 0;
-		int dy2 = 0;
+	/**
+	 * Append the bresenham line from (x1, y1) to (x2, y2), both
+	 * inclusive, to a path.
+	 * @param x1 the x coordinate of the first endpoint
+	 * @param y1 the y coordinate of the first endpoint
+	 * @param x2 the x coordinate of the second endpoint
+	 * @param y2 the y coordinate of the second endpoint
+	 * @param path the buffer to append to
+	 */
+	public static void bresenhamPath(int x1, int y1, int x2, int y2, PathBuffer path)
+	{
+		int longest = Math.max(Math.abs(x2 - x1), Math.abs(y2 - y1));
+		path.ensureCapacity(path.size() + longest + 1);
 
-		if (w < 0)
-		{
-			dx1 = -1;
-		}
-		else if (w > 0)
-		{
-			dx1 = 1;
-		}
+		bresenham(x1, y1, x2, y2, true, path);
+	}
 
-		if (h < 0)
-		{
-			dy1 = -1;
-		}
-		else if (h > 0)
-		{
-			dy1 = 1;
-		}
+	/**
+	 * Visit every point of the bresenham line from (x1, y1) to (x2, y2),
+	 * both inclusive, in order.
+	 * @param x1 the x coordinate of the first endpoint
+	 * @param y1 the y coordinate of the first endpoint
+	 * @param x2 the x coordinate of the second endpoint
+	 * @param y2 the y coordinate of the second endpoint
+	 * @param visitor the visitor receiving the line
+	 */
+	public static void bresenhamPath(int x1, int y1, int x2, int y2, PointVisitor visitor)
+	{
+		bresenham(x1, y1, x2, y2, true, visitor);
+	}
 
-		if (w < 0)
-		{
-			dx2 = -1 ;
-		}
-		else if (w > 0)
-		{
-			dx2 = 1 ;
-		}
+	/**
+	 * @return the number of points visited
+	 */
+	private static int bresenham(int x1, int y1, int x2, int y2, boolean inclusive, PointVisitor visitor)
+	{
+		int w = x2 - x1;
+		int h = y2 - y1;
+
+		int dx1 = Integer.signum(w);
+		int dy1 = Integer.signum(h);
+		int dx2 = dx1;
+		int dy2 = 0;
 
 		int longest = Math.abs(w);
 		int shortest = Math.abs(h);
@@ -280,21 +676,15 @@ public class PointUtil
 		{
 			longest = Math.abs(h);
 			shortest = Math.abs(w);
-			if (h < 0)
-			{
-				dy2 = -1;
-			}
-			else if (h > 0)
-			{
-				dy2 = 1;
-			}
 			dx2 = 0;
+			dy2 = dy1;
 		}
 
+		int end = inclusive ? longest : longest - 1;
 		int numerator = longest >> 1;
-		for (int i = 0; i <= longest; i++)
+		for (int i = 0; i <= end; i++)
 		{
-			path.add(new Point(x1, y1));
+			visitor.visit(x1, y1);
 			numerator += shortest;
 			if (numerator >= longest)
 			{
@@ -308,6 +698,7 @@ public class PointUtil
 				y1 += dy2;
 			}
 		}
-		return path;
+
+		return end + 1;
 	}
 }
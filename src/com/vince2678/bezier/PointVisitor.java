@@ -0,0 +1,16 @@
+package com.vince2678.bezier;
+
+/**
+ * A callback receiving integer points one at a time, so rasterizers
+ * can emit pixels without allocating a {@link java.awt.Point} for each.
+ */
+@FunctionalInterface
+public interface PointVisitor
+{
+	/**
+	 * Visit a point.
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 */
+	void visit(int x, int y);
+}
@@ -0,0 +1,93 @@
+package com.vince2678.bezier;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link BernsteinUtil#horner(double[], double[], double[], double[], double[], int) batch Horner}
+ * evaluation on the incubating Vector API, one time per lane.
+ * <p>
+ * This is the only class referring to {@code jdk.incubator.vector}, and it
+ * is only loaded once {@link BernsteinUtil} has checked the module is
+ * present, so the rest of the library runs without it.
+ */
+final class VectorBernstein
+{
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	private VectorBernstein()
+	{
+	}
+
+	/**
+	 * Check the platform evaluates more than one double per vector.
+	 * @return true if vectorizing is worthwhile
+	 */
+	static boolean isSupported()
+	{
+		return SPECIES.length() > 1;
+	}
+
+	static int getLanes()
+	{
+		return SPECIES.length();
+	}
+
+	/**
+	 * Evaluate the curve at ts[0] ... ts[count - 1].
+	 * <p>
+	 * Every lane performs exactly the scalar
+	 * {@link BernsteinUtil#horner(double[], double[], double[], double, double[]) Horner}
+	 * operations for its time, so the results are bit-for-bit the same.
+	 * Lanes with t &gt; 0.5 walk the coefficients from the other end,
+	 * which is done by blending the two coefficients of each step.
+	 *
+	 * @param cxs {@link BernsteinUtil#weight weighted} x coordinates of the control points
+	 * @param cys {@link BernsteinUtil#weight weighted} y coordinates of the control points
+	 * @param ts the times
+	 * @param outX array receiving the x coordinates
+	 * @param outY array receiving the y coordinates
+	 * @param count the number of times to evaluate
+	 * @return the number of times evaluated, a multiple of the lane count
+	 */
+	static int horner(double[] cxs, double[] cys, double[] ts, double[] outX, double[] outY, int count)
+	{
+		int n = cxs.length - 1;
+		int bound = SPECIES.loopBound(count);
+		DoubleVector half = DoubleVector.broadcast(SPECIES, 0.5D);
+		DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0D);
+
+		for (int i = 0; i < bound; i += SPECIES.length())
+		{
+			DoubleVector t = DoubleVector.fromArray(SPECIES, ts, i);
+			DoubleVector s = one.sub(t);
+
+			/* set for lanes evaluated from the last control point down */
+			VectorMask<Double> low = t.compare(VectorOperators.LE, half);
+
+			DoubleVector u = s.div(t).blend(t.div(s), low);
+			DoubleVector factor = t.blend(s, low);
+
+			DoubleVector x = DoubleVector.broadcast(SPECIES, cxs[0]).blend(cxs[n], low);
+			DoubleVector y = DoubleVector.broadcast(SPECIES, cys[0]).blend(cys[n], low);
+			DoubleVector scale = one;
+
+			for (int j = 1; j <= n; j++)
+			{
+				DoubleVector cx = DoubleVector.broadcast(SPECIES, cxs[j]).blend(cxs[n - j], low);
+				DoubleVector cy = DoubleVector.broadcast(SPECIES, cys[j]).blend(cys[n - j], low);
+
+				x = x.mul(u).add(cx);
+				y = y.mul(u).add(cy);
+				scale = scale.mul(factor);
+			}
+
+			x.mul(scale).intoArray(outX, i);
+			y.mul(scale).intoArray(outY, i);
+		}
+
+		return bound;
+	}
+}
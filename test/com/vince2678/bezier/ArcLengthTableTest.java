@@ -0,0 +1,111 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ArcLengthTableTest
+{
+	private static final int REFERENCE_SAMPLES = 200_000;
+
+	@Test
+	public void timeIncreasesWithDistance()
+	{
+		for (long seed = 0; seed < 5; seed++)
+		{
+			ArcLengthTable table = BezierCurveTest.curve(seed, 5).getArcLengthTable();
+
+			double previous = table.getTime(0.0D);
+			assertEquals(0.0D, previous);
+			for (double distance = 0.25D; distance < table.getLength(); distance += 0.25D)
+			{
+				double t = table.getTime(distance);
+				assertTrue(t > previous, "seed " + seed + ", distance " + distance);
+				previous = t;
+			}
+			assertEquals(1.0D, table.getTime(table.getLength()));
+			assertEquals(1.0D, table.getTime(Double.MAX_VALUE));
+		}
+	}
+
+	@Test
+	public void pointsAreEvenlySpacedAlongTheCurve()
+	{
+		double[] out = new double[2];
+		double[] expected = new double[2];
+		for (long seed = 0; seed < 5; seed++)
+		{
+			BezierCurve curve = BezierCurveTest.curve(seed, 5);
+			ArcLengthTable table = curve.getArcLengthTable();
+			double[] reference = referenceLengths(curve);
+			assertEquals(reference[REFERENCE_SAMPLES], table.getLength(), 0.5D);
+
+			/* the k-th point lies k * spacing along the curve, measured independently */
+			for (double distance = 0.0D; distance < table.getLength(); distance += 10.0D)
+			{
+				double t = table.getTime(distance);
+				assertEquals(distance, referenceLength(reference, t), 0.5D, "seed " + seed);
+
+				table.pointAtDistance(distance, out);
+				curve.solve(t, expected);
+				assertEquals(expected[0], out[0]);
+				assertEquals(expected[1], out[1]);
+			}
+		}
+	}
+
+	@Test
+	public void constantSpeedPathHasEvenSteps()
+	{
+		double spacing = 8.0D;
+		for (long seed = 0; seed < 5; seed++)
+		{
+			BezierCurve curve = BezierCurveTest.curve(seed, 5);
+			PathBuffer path = new PathBuffer();
+			curve.getArcLengthTable().getConstantSpeedPath(spacing, path);
+
+			assertEquals(curve.getControlPoint(curve.getControlPointCount() - 1),
+				path.get(path.size() - 1));
+
+			/* a chord is never longer than its arc, and rounding moves each end under a pixel */
+			for (int i = 1; i < path.size() - 1; i++)
+			{
+				double step = Math.hypot(path.getX(i) - path.getX(i - 1), path.getY(i) - path.getY(i - 1));
+				assertTrue(step <= spacing + 2.0D * Math.sqrt(2.0D), "seed " + seed + ", step " + i);
+			}
+
+			int steps = (int) Math.floor(curve.getArcLength() / spacing);
+			assertTrue(path.size() >= steps / 2, "seed " + seed);
+			assertTrue(path.size() <= steps + 2, "seed " + seed);
+		}
+	}
+
+	/**
+	 * Get the cumulative arc length at evenly spaced times, sampled far
+	 * more finely than the table.
+	 */
+	private static double[] referenceLengths(BezierCurve curve)
+	{
+		double[] lengths = new double[REFERENCE_SAMPLES + 1];
+		double[] out = new double[2];
+		curve.solve(0.0D, out);
+		double prevX = out[0];
+		double prevY = out[1];
+		for (int i = 1; i <= REFERENCE_SAMPLES; i++)
+		{
+			curve.solve((double) i / REFERENCE_SAMPLES, out);
+			lengths[i] = lengths[i - 1] + Math.hypot(out[0] - prevX, out[1] - prevY);
+			prevX = out[0];
+			prevY = out[1];
+		}
+		return lengths;
+	}
+
+	private static double referenceLength(double[] lengths, double t)
+	{
+		double position = t * REFERENCE_SAMPLES;
+		int i = Math.min((int) position, REFERENCE_SAMPLES - 1);
+		return lengths[i] + (position - i) * (lengths[i + 1] - lengths[i]);
+	}
+}
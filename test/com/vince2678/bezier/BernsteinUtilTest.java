@@ -0,0 +1,192 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+import org.junit.jupiter.api.Test;
+
+public class BernsteinUtilTest
+{
+	private static final double ROOT_TOLERANCE = 1e-9D;
+
+	@Test
+	public void findsRootsOfQuadratic()
+	{
+		/* (t - 0.3)(t - 0.7) = t^2 - t + 0.21 in Bernstein form */
+		double[] roots = distinct(BernsteinUtil.roots(new double[] {0.21D, -0.29D, 0.21D}));
+
+		assertEquals(2, roots.length);
+		assertEquals(0.3D, roots[0], ROOT_TOLERANCE);
+		assertEquals(0.7D, roots[1], ROOT_TOLERANCE);
+	}
+
+	@Test
+	public void findsRootsOfRandomCubics()
+	{
+		SplittableRandom random = new SplittableRandom(1);
+		for (int i = 0; i < 100; i++)
+		{
+			double a = random.nextDouble(0.05D, 0.3D);
+			double b = random.nextDouble(0.35D, 0.6D);
+			double c = random.nextDouble(0.65D, 0.95D);
+
+			double[] coefficients = toBernstein(t -> (t - a) * (t - b) * (t - c), 3);
+			double[] roots = distinct(BernsteinUtil.roots(coefficients));
+
+			assertEquals(3, roots.length);
+			assertEquals(a, roots[0], ROOT_TOLERANCE);
+			assertEquals(b, roots[1], ROOT_TOLERANCE);
+			assertEquals(c, roots[2], ROOT_TOLERANCE);
+		}
+	}
+
+	@Test
+	public void findsNoRootsWithoutSignChange()
+	{
+		assertEquals(0, BernsteinUtil.roots(new double[] {1.0D, 3.0D, 0.5D, 2.0D}).length);
+		assertEquals(0, BernsteinUtil.roots(new double[] {-1.0D, -0.1D}).length);
+		assertEquals(0, BernsteinUtil.roots(new double[] {0.0D}).length);
+	}
+
+	@Test
+	public void findsRootsOnSplitPoints()
+	{
+		/* zero at t = 0.5, the first split, where neither half changes sign */
+		double[] roots = distinct(BernsteinUtil.roots(new double[] {-1.0D, 1.0D}));
+		assertEquals(1, roots.length);
+		assertEquals(0.5D, roots[0], ROOT_TOLERANCE);
+
+		/* the derivative of y of the quadratic (0, 0), (10, 10), (20, 0), extreme at t = 0.5 */
+		roots = distinct(BernsteinUtil.roots(BernsteinUtil.hodograph(new double[] {0.0D, 10.0D, 0.0D})));
+		assertEquals(1, roots.length);
+		assertEquals(0.5D, roots[0], ROOT_TOLERANCE);
+
+		/* zeros at the deeper split points 0.25 and 0.75 */
+		roots = distinct(BernsteinUtil.roots(toBernstein(t -> (t - 0.25D) * (t - 0.75D), 2)));
+		assertEquals(2, roots.length);
+		assertEquals(0.25D, roots[0], ROOT_TOLERANCE);
+		assertEquals(0.75D, roots[1], ROOT_TOLERANCE);
+	}
+
+	@Test
+	public void hodographOfLineIsConstant()
+	{
+		assertArrayEquals(new double[] {10.0D}, BernsteinUtil.hodograph(new double[] {2.0D, 12.0D}));
+		assertArrayEquals(new double[] {0.0D}, BernsteinUtil.hodograph(new double[] {5.0D}));
+	}
+
+	@Test
+	public void evaluatorsAgree()
+	{
+		SplittableRandom random = new SplittableRandom(2);
+		for (int n = 1; n <= 60; n++)
+		{
+			double[] xs = new double[n + 1];
+			double[] ys = new double[n + 1];
+			for (int k = 0; k <= n; k++)
+			{
+				xs[k] = random.nextDouble(1000.0D);
+				ys[k] = random.nextDouble(1000.0D);
+			}
+			double[] binomials = BernsteinUtil.binomialRow(n);
+
+			double[] ts = new double[33];
+			for (int i = 0; i < ts.length; i++)
+			{
+				ts[i] = (double) i / (ts.length - 1);
+			}
+			double[] batchXs = new double[ts.length];
+			double[] batchYs = new double[ts.length];
+			BernsteinUtil.horner(BernsteinUtil.weight(xs, binomials), BernsteinUtil.weight(ys, binomials), ts,
+				batchXs, batchYs, ts.length);
+
+			double[] horner = new double[2];
+			double[] casteljau = new double[2];
+			double[] scratch = new double[2 * (n + 1)];
+			for (int i = 0; i < ts.length; i++)
+			{
+				BernsteinUtil.horner(xs, ys, binomials, ts[i], horner);
+				BernsteinUtil.deCasteljau(xs, ys, ts[i], casteljau, scratch);
+
+				assertEquals(casteljau[0], horner[0], 1e-6D);
+				assertEquals(casteljau[1], horner[1], 1e-6D);
+				assertEquals(horner[0], batchXs[i]);
+				assertEquals(horner[1], batchYs[i]);
+			}
+		}
+	}
+
+	/**
+	 * Get the Bernstein coefficients of a polynomial of degree n by
+	 * sampling it at n + 1 evenly spaced times and solving for the
+	 * coefficients with Gaussian elimination.
+	 */
+	private static double[] toBernstein(DoubleUnaryOperator p, int n)
+	{
+		double[][] a = new double[n + 1][n + 2];
+		for (int i = 0; i <= n; i++)
+		{
+			double t = (double) i / n;
+			for (int k = 0; k <= n; k++)
+			{
+				a[i][k] = MathUtil.nCkDouble(n, k) * Math.pow(t, k) * Math.pow(1.0D - t, n - k);
+			}
+			a[i][n + 1] = p.applyAsDouble(t);
+		}
+
+		for (int col = 0; col <= n; col++)
+		{
+			int pivot = col;
+			for (int row = col + 1; row <= n; row++)
+			{
+				if (Math.abs(a[row][col]) > Math.abs(a[pivot][col]))
+				{
+					pivot = row;
+				}
+			}
+			double[] swap = a[col];
+			a[col] = a[pivot];
+			a[pivot] = swap;
+
+			for (int row = 0; row <= n; row++)
+			{
+				if (row != col)
+				{
+					double factor = a[row][col] / a[col][col];
+					for (int k = col; k <= n + 1; k++)
+					{
+						a[row][k] -= factor * a[col][k];
+					}
+				}
+			}
+		}
+
+		double[] coefficients = new double[n + 1];
+		for (int k = 0; k <= n; k++)
+		{
+			coefficients[k] = a[k][n + 1] / a[k][k];
+		}
+		return coefficients;
+	}
+
+	/**
+	 * Drop the duplicates {@link BernsteinUtil#roots} may report for
+	 * a root on a split point.
+	 */
+	private static double[] distinct(double[] roots)
+	{
+		double[] result = new double[roots.length];
+		int count = 0;
+		for (double root: roots)
+		{
+			if (count == 0 || root - result[count - 1] > ROOT_TOLERANCE)
+			{
+				result[count++] = root;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+}
@@ -0,0 +1,365 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+public class BezierCurveTest
+{
+	static BezierCurve curve(long seed, int controls)
+	{
+		SplittableRandom random = new SplittableRandom(seed);
+		Point p1 = new Point(random.nextInt(100, 400), random.nextInt(100, 400));
+		Point p2 = new Point(random.nextInt(1200, 2000), random.nextInt(1200, 2000));
+		return new BezierCurve(p1, p2, controls, BezierCurve.Sampling.UNIFORM, random);
+	}
+
+	@Test
+	public void forwardDifferenceStaysWithinOnePixelOfSampled()
+	{
+		for (int controls: new int[] {0, 1, 4, 14, 39})
+		{
+			for (long seed = 0; seed < 5; seed++)
+			{
+				BezierCurve curve = curve(seed, controls);
+				List<Point> sampled = curve.getPath(BezierCurve.PathMode.SAMPLED);
+				List<Point> differenced = curve.getPath(BezierCurve.PathMode.FORWARD_DIFFERENCE);
+
+				assertEquals(sampled.get(0), differenced.get(0));
+				assertEquals(sampled.get(sampled.size() - 1), differenced.get(differenced.size() - 1));
+				for (Point point: differenced)
+				{
+					assertTrue(nearest(sampled, point) <= 1,
+						"degree " + (controls + 1) + ", seed " + seed + ": " + point + " drifted");
+				}
+			}
+		}
+	}
+
+	@Test
+	public void samplingPathsAgreeAcrossEvaluators()
+	{
+		BezierCurve curve = curve(3, 20);
+		for (BezierCurve.Evaluator evaluator: BezierCurve.Evaluator.values())
+		{
+			List<Point> path = curve.withEvaluator(evaluator).getPath(BezierCurve.PathMode.SAMPLED);
+			List<Point> reference = curve.withEvaluator(BezierCurve.Evaluator.DE_CASTELJAU)
+				.getPath(BezierCurve.PathMode.SAMPLED);
+			for (Point point: path)
+			{
+				assertTrue(nearest(reference, point) <= 1, evaluator + ": " + point);
+			}
+		}
+	}
+
+	@Test
+	public void highDegreeCurvesStayFinite()
+	{
+		for (int controls: new int[] {900, 1100})
+		{
+			BezierCurve curve = curve(controls, controls);
+			double[] out = new double[2];
+			for (BezierCurve.Evaluator evaluator: new BezierCurve.Evaluator[] {BezierCurve.Evaluator.HORNER,
+				BezierCurve.Evaluator.DE_CASTELJAU})
+			{
+				for (int i = 0; i <= 100; i++)
+				{
+					curve.solve(i / 100.0D, evaluator, out);
+					assertTrue(Double.isFinite(out[0]) && Double.isFinite(out[1]), evaluator + " at " + i);
+
+					curve.derivative(i / 100.0D, out);
+					assertTrue(Double.isFinite(out[0]) && Double.isFinite(out[1]), "derivative at " + i);
+				}
+			}
+
+			/* the arc length and cubic chain modes are left out: de Casteljau makes them slow at this degree */
+			Rectangle2D.Double hull = curve.getHullBounds();
+			for (BezierCurve.PathMode mode: new BezierCurve.PathMode[] {BezierCurve.PathMode.SAMPLED,
+				BezierCurve.PathMode.FORWARD_DIFFERENCE, BezierCurve.PathMode.ADAPTIVE})
+			{
+				for (Point point: curve.getPath(mode))
+				{
+					assertTrue(hull.getMinX() - 1 <= point.x && point.x <= hull.getMaxX() + 1, mode + ": " + point);
+					assertTrue(hull.getMinY() - 1 <= point.y && point.y <= hull.getMaxY() + 1, mode + ": " + point);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void defaultEvaluatorAvoidsOverflow()
+	{
+		assertEquals(BezierCurve.Evaluator.HORNER, curve(1, 100).getEvaluator());
+		assertEquals(BezierCurve.Evaluator.DE_CASTELJAU, curve(1, 1100).getEvaluator());
+	}
+
+	@Test
+	public void tightBoundsContainEverySample()
+	{
+		for (int controls: new int[] {0, 1, 2, 5, 20, 60})
+		{
+			for (long seed = 0; seed < 5; seed++)
+			{
+				BezierCurve curve = curve(seed, controls);
+				Rectangle2D.Double tight = curve.getTightBounds();
+				Rectangle2D.Double hull = curve.getHullBounds();
+
+				assertTrue(hull.contains(tight) || hull.equals(tight));
+
+				double[] out = new double[2];
+				for (int i = 0; i <= 2000; i++)
+				{
+					curve.solve(i / 2000.0D, out);
+					assertTrue(out[0] >= tight.getMinX() - 1e-6D && out[0] <= tight.getMaxX() + 1e-6D);
+					assertTrue(out[1] >= tight.getMinY() - 1e-6D && out[1] <= tight.getMaxY() + 1e-6D);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void adaptivePathIsGapFree()
+	{
+		for (int controls: new int[] {0, 3, 20})
+		{
+			BezierCurve curve = curve(controls, controls);
+			List<Point> path = curve.getPath(BezierCurve.PathMode.ADAPTIVE);
+
+			assertEquals(curve.getControlPoint(0), path.get(0));
+			assertEquals(curve.getControlPoint(controls + 1), path.get(path.size() - 1));
+			for (int i = 1; i < path.size(); i++)
+			{
+				assertEquals(1, chebyshev(path.get(i - 1), path.get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void overshootingPieceIsNotFlat()
+	{
+		/* in line with the chord from (0, 0) to (10, 0), but reaching x = 30 and x = -10 */
+		assertFalse(BezierCurve.isFlat(new double[] {0, 30, -10, 10, 0, 0, 0, 0}, 4));
+		assertFalse(BezierCurve.isFlat(new double[] {0, 5, 0, 0, 0, 0}, 3));
+
+		assertTrue(BezierCurve.isFlat(new double[] {0, 3, 7, 10, 0, 0.4D, -0.4D, 0}, 4));
+		assertTrue(BezierCurve.isFlat(new double[] {0, 0.3D, 0, 0, 0.3D, 0}, 3));
+	}
+
+	@Test
+	public void adaptivePathReachesTightBounds()
+	{
+		for (int controls: new int[] {1, 2, 5, 12})
+		{
+			for (long seed = 0; seed < 10; seed++)
+			{
+				BezierCurve curve = curve(seed, controls);
+				Rectangle2D.Double tight = curve.getTightBounds();
+
+				int minX = Integer.MAX_VALUE;
+				int minY = Integer.MAX_VALUE;
+				int maxX = Integer.MIN_VALUE;
+				int maxY = Integer.MIN_VALUE;
+				for (Point point: curve.getPath(BezierCurve.PathMode.ADAPTIVE))
+				{
+					minX = Math.min(minX, point.x);
+					minY = Math.min(minY, point.y);
+					maxX = Math.max(maxX, point.x);
+					maxY = Math.max(maxY, point.y);
+				}
+
+				assertEquals(tight.getMinX(), minX, 1.5D);
+				assertEquals(tight.getMinY(), minY, 1.5D);
+				assertEquals(tight.getMaxX(), maxX, 1.5D);
+				assertEquals(tight.getMaxY(), maxY, 1.5D);
+			}
+		}
+	}
+
+	@Test
+	public void pathBoundsFollowPathMode()
+	{
+		/* a short chord gets a coarse sampled path, whose bounds differ from the other modes' */
+		BezierCurve curve = new BezierCurve(new Point(100, 100), new Point(140, 100), 6, BezierCurve.Sampling.UNIFORM,
+			new SplittableRandom(1));
+		for (BezierCurve.PathMode mode: BezierCurve.PathMode.values())
+		{
+			/* memoize the bounds of the sampled path first, so a stale copy would show */
+			curve.getPathBounds();
+			BezierCurve copy = curve.withPathMode(mode);
+
+			Rectangle expected = new Rectangle(copy.getPath().get(0));
+			for (Point point: copy.getPath())
+			{
+				expected.add(point);
+			}
+			assertEquals(expected, copy.getPathBounds(), mode.name());
+		}
+	}
+
+	@Test
+	public void distanceToIsAtMostBruteForce()
+	{
+		SplittableRandom random = new SplittableRandom(9);
+		double[] out = new double[2];
+		for (long seed = 0; seed < 10; seed++)
+		{
+			BezierCurve curve = curve(seed, (int) seed * 3);
+			for (int q = 0; q < 20; q++)
+			{
+				double x = random.nextDouble(0.0D, 2200.0D);
+				double y = random.nextDouble(0.0D, 2200.0D);
+
+				double brute = Double.POSITIVE_INFINITY;
+				for (int i = 0; i <= 20000; i++)
+				{
+					curve.solve(i / 20000.0D, out);
+					brute = Math.min(brute, Math.hypot(out[0] - x, out[1] - y));
+				}
+
+				double distance = curve.distanceTo(x, y);
+				assertTrue(distance <= brute + 1e-9D);
+				assertTrue(distance >= brute - 1.0D);
+			}
+		}
+	}
+
+	@Test
+	public void preparingHitTestingKeepsAnswers()
+	{
+		BezierCurve prepared = curve(40, 9);
+		BezierCurve lazy = curve(40, 9);
+		prepared.prepareHitTesting();
+
+		assertEquals(lazy.getTightBounds(), prepared.getTightBounds());
+		SplittableRandom random = new SplittableRandom(41);
+		for (int q = 0; q < 50; q++)
+		{
+			double x = random.nextDouble(0.0D, 2200.0D);
+			double y = random.nextDouble(0.0D, 2200.0D);
+			assertEquals(lazy.distanceTo(x, y), prepared.distanceTo(x, y));
+		}
+	}
+
+	@Test
+	public void batchMatchesSequentialGeneration()
+	{
+		int len = BezierCurve.BATCH_THRESHOLD;
+		Point[] p1s = new Point[len];
+		Point[] p2s = new Point[len];
+		int[] controls = new int[len];
+		batchInputs(new SplittableRandom(20), p1s, p2s, controls);
+
+		/* a batch no larger than the threshold runs as one task on one split stream */
+		PathBuffer[] paths = new PathBuffer[len];
+		BezierCurve.generateBatch(p1s, p2s, controls, paths, ForkJoinPool.commonPool(), new SplittableRandom(21));
+
+		SplittableRandom random = new SplittableRandom(21).split();
+		for (int i = 0; i < len; i++)
+		{
+			BezierCurve curve = new BezierCurve(p1s[i], p2s[i], controls[i], BezierCurve.Sampling.UNIFORM, random);
+			assertEquals(curve.getPath(), paths[i].toList(), "curve " + i);
+		}
+	}
+
+	@Test
+	public void batchDoesNotDependOnPoolSize()
+	{
+		int len = 10 * BezierCurve.BATCH_THRESHOLD + 3;
+		Point[] p1s = new Point[len];
+		Point[] p2s = new Point[len];
+		int[] controls = new int[len];
+		batchInputs(new SplittableRandom(22), p1s, p2s, controls);
+
+		PathBuffer[] sequential = new PathBuffer[len];
+		PathBuffer[] parallel = new PathBuffer[len];
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool several = new ForkJoinPool(4);
+		try
+		{
+			BezierCurve.generateBatch(p1s, p2s, controls, sequential, single, new SplittableRandom(23));
+			BezierCurve.generateBatch(p1s, p2s, controls, parallel, several, new SplittableRandom(23));
+		}
+		finally
+		{
+			single.shutdown();
+			several.shutdown();
+		}
+
+		for (int i = 0; i < len; i++)
+		{
+			assertEquals(sequential[i].toList(), parallel[i].toList(), "curve " + i);
+			assertEquals(p1s[i], sequential[i].get(0));
+			assertEquals(p2s[i], sequential[i].get(sequential[i].size() - 1));
+		}
+	}
+
+	@Test
+	public void sameSeedGivesSameCurves()
+	{
+		Point p1 = new Point(50, 60);
+		Point p2 = new Point(700, 500);
+		for (BezierCurve.Sampling sampling: BezierCurve.Sampling.values())
+		{
+			BezierCurve a = new BezierCurve(p1, p2, 12, sampling, new SplittableRandom(30));
+			BezierCurve b = new BezierCurve(p1, p2, 12, sampling, new SplittableRandom(30));
+			BezierCurve c = new BezierCurve(p1, p2, 12, sampling, new SplittableRandom(31));
+
+			assertEquals(a.getControlPoints(), b.getControlPoints(), sampling.name());
+			assertEquals(a.getPath(), b.getPath(), sampling.name());
+			assertFalse(a.getControlPoints().equals(c.getControlPoints()), sampling.name());
+		}
+	}
+
+	@Test
+	public void sameSeedGivesSameBatches()
+	{
+		int len = 5 * BezierCurve.BATCH_THRESHOLD;
+		Point[] p1s = new Point[len];
+		Point[] p2s = new Point[len];
+		int[] controls = new int[len];
+		batchInputs(new SplittableRandom(32), p1s, p2s, controls);
+
+		PathBuffer[] first = new PathBuffer[len];
+		PathBuffer[] second = new PathBuffer[len];
+		BezierCurve.generateBatch(p1s, p2s, controls, first, ForkJoinPool.commonPool(), new SplittableRandom(33));
+		BezierCurve.generateBatch(p1s, p2s, controls, second, ForkJoinPool.commonPool(), new SplittableRandom(33));
+
+		for (int i = 0; i < len; i++)
+		{
+			assertEquals(first[i].toList(), second[i].toList(), "curve " + i);
+		}
+	}
+
+	private static void batchInputs(SplittableRandom random, Point[] p1s, Point[] p2s, int[] controls)
+	{
+		for (int i = 0; i < p1s.length; i++)
+		{
+			p1s[i] = new Point(random.nextInt(0, 500), random.nextInt(0, 500));
+			p2s[i] = new Point(random.nextInt(600, 1000), random.nextInt(600, 1000));
+			controls[i] = random.nextInt(8);
+		}
+	}
+
+	private static int nearest(List<Point> path, Point point)
+	{
+		int nearest = Integer.MAX_VALUE;
+		for (Point p: path)
+		{
+			nearest = Math.min(nearest, chebyshev(p, point));
+		}
+		return nearest;
+	}
+
+	private static int chebyshev(Point p1, Point p2)
+	{
+		return Math.max(Math.abs(p1.x - p2.x), Math.abs(p1.y - p2.y));
+	}
+}
@@ -0,0 +1,215 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentFixedSizeHashMapTest
+{
+	@Test
+	public void evictsOldestFirst()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(3);
+		for (int i = 0; i < 5; i++)
+		{
+			map.put(i, Integer.toString(i));
+		}
+
+		assertEquals(3, map.size());
+		assertFalse(map.containsKey(0));
+		assertFalse(map.containsKey(1));
+		assertEquals("4", map.get(4));
+		assertEquals(2L, map.getStats().getEvictions());
+	}
+
+	@Test
+	public void replacingDoesNotCountTwice()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(2);
+		map.put(1, "a");
+		map.put(1, "b");
+		map.put(2, "c");
+
+		assertEquals(2, map.size());
+		assertEquals("b", map.get(1));
+		assertEquals(2, map.getStats().getSize());
+	}
+
+	@Test
+	public void removeFreesCapacity()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(2);
+		map.put(1, "a");
+		map.put(2, "b");
+		map.remove(1);
+		map.put(3, "c");
+
+		/* 2 must survive: removing 1 took it out of the queue and the count */
+		assertEquals("b", map.get(2));
+		assertEquals("c", map.get(3));
+		assertEquals(2, map.getStats().getSize());
+		assertEquals(0L, map.getStats().getEvictions());
+	}
+
+	@Test
+	public void removalsDoNotGrowQueue()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(2);
+		for (int i = 0; i < 1_000_000; i++)
+		{
+			map.put(i, "a");
+			map.remove(i);
+		}
+
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.getQueueLength());
+	}
+
+	@Test
+	public void reinsertedKeyIsEvictedInItsNewPlace()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(2);
+		map.put(1, "a");
+		map.remove(1);
+		map.put(2, "b");
+		map.put(1, "c");
+		map.put(3, "d");
+
+		/* 2 is older than the re-inserted 1, so it goes first */
+		assertEquals(Set.of(1, 3), map.keySet());
+		assertEquals(2, map.getQueueLength());
+	}
+
+	@Test
+	public void shrinkingCapacityEvicts()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(4);
+		for (int i = 0; i < 4; i++)
+		{
+			map.put(i, Integer.toString(i));
+		}
+		map.setCapacity(1);
+
+		assertEquals(1, map.size());
+		assertTrue(map.containsKey(3));
+	}
+
+	@Test
+	public void computeIfAbsentCachesValue()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(2);
+
+		assertEquals("1", map.computeIfAbsent(1, Object::toString));
+		assertEquals("1", map.computeIfAbsent(1, k -> "other"));
+		assertNull(map.computeIfAbsent(2, k -> null));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	public void computeMethodsKeepCount()
+	{
+		ConcurrentFixedSizeHashMap<Integer, Integer> map = new ConcurrentFixedSizeHashMap<>(3);
+
+		assertEquals(1, map.compute(1, (k, v) -> v == null ? 1 : v + 1));
+		assertEquals(2, map.compute(1, (k, v) -> v == null ? 1 : v + 1));
+		assertNull(map.computeIfPresent(2, (k, v) -> 5));
+		assertEquals(10, map.merge(2, 10, Integer::sum));
+		assertEquals(13, map.merge(2, 3, Integer::sum));
+		assertEquals(2, map.getStats().getSize());
+
+		assertNull(map.computeIfPresent(1, (k, v) -> null));
+		assertNull(map.merge(2, 1, (a, b) -> null));
+		assertNull(map.compute(3, (k, v) -> null));
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.getStats().getSize());
+
+		/* entries added by compute and merge are evicted in order too */
+		for (int i = 0; i < 5; i++)
+		{
+			map.compute(i, (k, v) -> k);
+			map.merge(10 + i, i, Integer::sum);
+		}
+		assertEquals(3, map.size());
+		assertEquals(3, map.getStats().getSize());
+		assertEquals(Set.of(13, 4, 14), map.keySet());
+	}
+
+	@Test
+	public void viewRemovalsKeepCount()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(3);
+		map.put(1, "a");
+		map.put(2, "b");
+		map.put(3, "c");
+
+		assertTrue(map.keySet().remove(1));
+		Iterator<String> values = map.values().iterator();
+		values.next();
+		values.remove();
+		map.entrySet().removeIf(entry -> true);
+
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.getStats().getSize());
+
+		/* nothing is evicted early, since the count went back to zero */
+		map.put(4, "d");
+		map.put(5, "e");
+		map.put(6, "f");
+		assertEquals(3, map.size());
+		assertEquals(0L, map.getStats().getEvictions());
+
+		Map.Entry<Integer, String> entry = map.entrySet().iterator().next();
+		entry.setValue("z");
+		assertEquals("z", map.get(entry.getKey()));
+		assertEquals(3, map.getStats().getSize());
+	}
+
+	@Test
+	public void countsHitsAndMisses()
+	{
+		ConcurrentFixedSizeHashMap<Integer, String> map = new ConcurrentFixedSizeHashMap<>(2);
+		map.put(1, "a");
+		map.get(1);
+		map.get(2);
+
+		assertEquals(1L, map.getStats().getHits());
+		assertEquals(1L, map.getStats().getMisses());
+	}
+
+	@Test
+	public void concurrentPutsStayWithinCapacity() throws InterruptedException
+	{
+		int capacity = 64;
+		ConcurrentFixedSizeHashMap<Integer, Integer> map = new ConcurrentFixedSizeHashMap<>(capacity);
+
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++)
+		{
+			int offset = t * 100_000;
+			threads.add(new Thread(() ->
+			{
+				for (int i = 0; i < 20_000; i++)
+				{
+					map.put(offset + i, i);
+				}
+			}));
+		}
+
+		threads.forEach(Thread::start);
+		for (Thread thread: threads)
+		{
+			thread.join();
+		}
+
+		assertTrue(map.size() <= capacity);
+		assertEquals(map.size(), map.getStats().getSize());
+	}
+}
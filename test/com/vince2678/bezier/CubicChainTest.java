@@ -0,0 +1,92 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class CubicChainTest
+{
+	@Test
+	public void staysWithinToleranceAtCheckedTimes()
+	{
+		for (int controls: new int[] {0, 2, 8, 30})
+		{
+			BezierCurve curve = BezierCurveTest.curve(controls, controls);
+			for (double tolerance: new double[] {0.05D, 0.25D, 2.0D})
+			{
+				CubicChain chain = curve.toCubicChain(tolerance);
+				double[] expected = new double[2];
+				double[] actual = new double[2];
+
+				for (int i = 0; i < chain.getSegmentCount(); i++)
+				{
+					double t0 = chain.getKnot(i);
+					double t1 = chain.getKnot(i + 1);
+					for (int j = 0; j <= CubicChain.ERROR_SAMPLES; j++)
+					{
+						double t = t0 + (t1 - t0) * j / CubicChain.ERROR_SAMPLES;
+						curve.solve(t, expected);
+						chain.solve(t, actual);
+
+						double error = Math.hypot(expected[0] - actual[0], expected[1] - actual[1]);
+						assertTrue(error <= tolerance + 1e-9D, "error " + error + " at t = " + t);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void staysNearToleranceBetweenCheckedTimes()
+	{
+		BezierCurve curve = BezierCurveTest.curve(4, 12);
+		CubicChain chain = curve.toCubicChain(BezierCurve.CUBIC_TOLERANCE);
+		double[] expected = new double[2];
+		double[] actual = new double[2];
+
+		for (int i = 0; i <= 100_000; i++)
+		{
+			double t = i / 100_000.0D;
+			curve.solve(t, expected);
+			chain.solve(t, actual);
+
+			double error = Math.hypot(expected[0] - actual[0], expected[1] - actual[1]);
+			assertTrue(error <= 1.1D * BezierCurve.CUBIC_TOLERANCE, "error " + error + " at t = " + t);
+		}
+	}
+
+	@Test
+	public void knotsCoverTheCurveInOrder()
+	{
+		BezierCurve curve = BezierCurveTest.curve(5, 20);
+		CubicChain chain = curve.getCubicChain();
+
+		assertEquals(0.0D, chain.getKnot(0));
+		assertEquals(1.0D, chain.getKnot(chain.getSegmentCount()));
+		for (int i = 1; i <= chain.getSegmentCount(); i++)
+		{
+			assertTrue(chain.getKnot(i) > chain.getKnot(i - 1));
+		}
+
+		/* segments join where the curve's points are */
+		double[] segment = new double[8];
+		double[] point = new double[2];
+		for (int i = 0; i < chain.getSegmentCount(); i++)
+		{
+			chain.getSegment(i, segment);
+			curve.solve(chain.getKnot(i), point);
+			assertEquals(point[0], segment[0], 1e-9D);
+			assertEquals(point[1], segment[4], 1e-9D);
+		}
+	}
+
+	@Test
+	public void rejectsNonPositiveTolerance()
+	{
+		BezierCurve curve = BezierCurveTest.curve(1, 1);
+		assertThrows(IllegalArgumentException.class, () -> curve.toCubicChain(0.0D));
+		assertThrows(IllegalArgumentException.class, () -> curve.toCubicChain(Double.NaN));
+	}
+}
@@ -0,0 +1,188 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CurveIndexTest
+{
+	private static final int CANVAS = 2000;
+
+	private List<BezierCurve> curves;
+	private CurveIndex index;
+
+	@BeforeEach
+	public void setUp()
+	{
+		SplittableRandom random = new SplittableRandom(7);
+		curves = new ArrayList<>();
+		index = new CurveIndex(32);
+		for (int i = 0; i < 300; i++)
+		{
+			int x = random.nextInt(CANVAS);
+			int y = random.nextInt(CANVAS);
+			Point p1 = new Point(x, y);
+			Point p2 = new Point(x + random.nextInt(1, 300), y + random.nextInt(-200, 200));
+			BezierCurve curve = new BezierCurve(p1, p2, random.nextInt(6), BezierCurve.Sampling.UNIFORM, random);
+
+			curves.add(curve);
+			assertTrue(index.insert(curve));
+		}
+	}
+
+	@Test
+	public void pointQueriesMatchBruteForce()
+	{
+		SplittableRandom random = new SplittableRandom(8);
+		for (int q = 0; q < 200; q++)
+		{
+			double x = random.nextDouble(CANVAS);
+			double y = random.nextDouble(CANVAS);
+			double radius = random.nextDouble(1.0D, 40.0D);
+
+			List<BezierCurve> expected = new ArrayList<>();
+			for (BezierCurve curve: curves)
+			{
+				if (curve.distanceTo(x, y) <= radius)
+				{
+					expected.add(curve);
+				}
+			}
+
+			List<BezierCurve> actual = index.query(x, y, radius);
+			assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+			for (int i = 1; i < actual.size(); i++)
+			{
+				assertTrue(actual.get(i - 1).distanceTo(x, y) <= actual.get(i).distanceTo(x, y));
+			}
+
+			BezierCurve nearest = index.nearest(x, y, radius);
+			if (expected.isEmpty())
+			{
+				assertNull(nearest);
+			}
+			else
+			{
+				assertEquals(actual.get(0).distanceTo(x, y), nearest.distanceTo(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void rectangleQueriesMatchBruteForce()
+	{
+		SplittableRandom random = new SplittableRandom(9);
+		for (int q = 0; q < 100; q++)
+		{
+			Rectangle2D.Double area = new Rectangle2D.Double(random.nextDouble(CANVAS), random.nextDouble(CANVAS),
+				random.nextDouble(1.0D, 200.0D), random.nextDouble(1.0D, 200.0D));
+
+			List<BezierCurve> expected = new ArrayList<>();
+			for (BezierCurve curve: curves)
+			{
+				if (curve.passesThrough(area))
+				{
+					expected.add(curve);
+				}
+			}
+
+			List<BezierCurve> actual = index.query(area);
+			assertEquals(expected.size(), actual.size());
+			assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+		}
+	}
+
+	@Test
+	public void removedCurvesAreNotFound()
+	{
+		BezierCurve curve = curves.get(0);
+		Point start = curve.getControlPoint(0);
+
+		assertSame(curve, index.nearest(start.x, start.y, 0.5D));
+		assertFalse(index.insert(curve));
+
+		assertTrue(index.remove(curve));
+		assertFalse(index.remove(curve));
+		assertFalse(index.contains(curve));
+		assertEquals(curves.size() - 1, index.size());
+		assertFalse(index.query(start.x, start.y, 0.5D).contains(curve));
+
+		index.clear();
+		assertEquals(0, index.size());
+		assertTrue(index.query(new Rectangle2D.Double(0, 0, CANVAS, CANVAS)).isEmpty());
+	}
+
+	@Test
+	public void queriesMatchBruteForceAfterRemovals()
+	{
+		/* emptying cells shifts other cells back in the table, which must stay findable */
+		List<BezierCurve> remaining = new ArrayList<>();
+		for (int i = 0; i < curves.size(); i++)
+		{
+			if (i % 3 == 0)
+			{
+				assertTrue(index.remove(curves.get(i)));
+			}
+			else
+			{
+				remaining.add(curves.get(i));
+			}
+		}
+
+		SplittableRandom random = new SplittableRandom(10);
+		for (int q = 0; q < 100; q++)
+		{
+			Rectangle2D.Double area = new Rectangle2D.Double(random.nextDouble(CANVAS), random.nextDouble(CANVAS),
+				random.nextDouble(1.0D, 200.0D), random.nextDouble(1.0D, 200.0D));
+
+			List<BezierCurve> expected = new ArrayList<>();
+			for (BezierCurve curve: remaining)
+			{
+				if (curve.passesThrough(area))
+				{
+					expected.add(curve);
+				}
+			}
+
+			List<BezierCurve> actual = index.query(area);
+			assertEquals(expected.size(), actual.size());
+			assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+		}
+	}
+
+	@Test
+	public void hugeCurvesAndQueriesFinish()
+	{
+		CurveIndex small = new CurveIndex(1);
+		BezierCurve huge = new BezierCurve(new Point(-500_000_000, 0), new Point(500_000_000, 1000), 2,
+			BezierCurve.Sampling.UNIFORM, new SplittableRandom(3));
+		BezierCurve tiny = curves.get(0);
+
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+		{
+			assertTrue(small.insert(huge));
+			assertTrue(small.insert(tiny));
+
+			Point start = huge.getControlPoint(0);
+			assertSame(huge, small.nearest(start.x, start.y, 1.0D));
+			assertTrue(small.query(Double.NEGATIVE_INFINITY, 0.0D, Double.POSITIVE_INFINITY).contains(tiny));
+			assertEquals(2, small.query(new Rectangle2D.Double(-1e12D, -1e12D, 2e12D, 2e12D)).size());
+
+			assertTrue(small.remove(huge));
+			assertFalse(small.query(start.x, start.y, 1.0D).contains(huge));
+		});
+	}
+}
@@ -0,0 +1,81 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class FixedSizeHashMapTest
+{
+	@Test
+	public void insertionOrderEvictsOldest()
+	{
+		FixedSizeHashMap<Integer, String> map = new FixedSizeHashMap<>(2);
+		map.put(1, "a");
+		map.put(2, "b");
+		map.get(1);
+		map.put(3, "c");
+
+		/* reading 1 doesn't save it in insertion order */
+		assertEquals(List.of(2, 3), List.copyOf(map.keySet()));
+	}
+
+	@Test
+	public void accessOrderEvictsLeastRecentlyUsed()
+	{
+		FixedSizeHashMap<Integer, String> map = new FixedSizeHashMap<>(3, true);
+		map.put(1, "a");
+		map.put(2, "b");
+		map.put(3, "c");
+		map.get(1);
+		map.put(4, "d");
+
+		assertEquals(List.of(3, 1, 4), List.copyOf(map.keySet()));
+
+		map.get(3);
+		map.put(5, "e");
+		assertEquals(List.of(4, 3, 5), List.copyOf(map.keySet()));
+	}
+
+	@Test
+	public void countsHitsMissesAndEvictions()
+	{
+		FixedSizeHashMap<Integer, String> map = new FixedSizeHashMap<>(2, true);
+		map.put(1, "a");
+		map.put(2, null);
+		map.get(1);
+		map.get(2);
+		assertNull(map.get(3));
+		map.put(3, "c");
+		map.put(4, "d");
+
+		/* a key mapped to null is a hit, not a miss */
+		CacheStats stats = map.getStats();
+		assertEquals(2L, stats.getHits());
+		assertEquals(1L, stats.getMisses());
+		assertEquals(2L, stats.getEvictions());
+		assertEquals(2, stats.getSize());
+		assertEquals(2, stats.getCapacity());
+		assertEquals(2.0D / 3.0D, stats.getHitRate(), 1e-12D);
+
+		map.resetStats();
+		assertEquals(0L, map.getStats().getHits());
+		assertEquals(0L, map.getStats().getEvictions());
+	}
+
+	@Test
+	public void shrinkingCapacityEvictsInOrder()
+	{
+		FixedSizeHashMap<Integer, String> map = new FixedSizeHashMap<>(4, true);
+		for (int i = 0; i < 4; i++)
+		{
+			map.put(i, Integer.toString(i));
+		}
+		map.get(0);
+		map.setCapacity(2);
+
+		assertEquals(List.of(3, 0), List.copyOf(map.keySet()));
+		assertEquals(2L, map.getEvictions());
+	}
+}
@@ -0,0 +1,110 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest
+{
+	@Test
+	public void percentilesAreBucketUpperBounds()
+	{
+		Histogram histogram = new Histogram();
+		for (long value = 1; value <= 1000; value++)
+		{
+			histogram.record(value);
+		}
+
+		Histogram.Snapshot snapshot = histogram.getSnapshot();
+		assertEquals(1000L, snapshot.getCount());
+		assertEquals(500_500L, snapshot.getSum());
+		assertEquals(500.5D, snapshot.getMean());
+		assertEquals(1000L, snapshot.getMax());
+
+		/* the 500th value lies in [256, 511]; later ones in [512, 1023], capped at the maximum */
+		assertEquals(511L, snapshot.getP50());
+		assertEquals(1000L, snapshot.getP90());
+		assertEquals(1000L, snapshot.getP99());
+		assertEquals(1000L, snapshot.getP999());
+	}
+
+	@Test
+	public void percentilesFollowTheDistribution()
+	{
+		Histogram histogram = new Histogram();
+		for (int i = 0; i < 990; i++)
+		{
+			histogram.record(3L);
+		}
+		for (int i = 0; i < 10; i++)
+		{
+			histogram.record(1L << 40);
+		}
+
+		Histogram.Snapshot snapshot = histogram.getSnapshot();
+		assertEquals(3L, snapshot.getP50());
+		assertEquals(3L, snapshot.getP90());
+		assertEquals(3L, snapshot.getP99());
+		assertEquals(1L << 40, snapshot.getP999());
+		assertEquals(1L << 40, snapshot.getMax());
+	}
+
+	@Test
+	public void negativeValuesCountAsZero()
+	{
+		Histogram histogram = new Histogram();
+		histogram.record(-5L);
+		histogram.record(0L);
+
+		Histogram.Snapshot snapshot = histogram.getSnapshot();
+		assertEquals(2L, snapshot.getCount());
+		assertEquals(0L, snapshot.getSum());
+		assertEquals(0L, snapshot.getMax());
+		assertEquals(0L, snapshot.getP99());
+	}
+
+	@Test
+	public void resetClearsEverything()
+	{
+		Histogram histogram = new Histogram();
+		histogram.record(Long.MAX_VALUE);
+		histogram.reset();
+
+		Histogram.Snapshot snapshot = histogram.getSnapshot();
+		assertEquals(0L, snapshot.getCount());
+		assertEquals(0L, snapshot.getMax());
+		assertEquals(0L, snapshot.getP50());
+		assertEquals(0.0D, snapshot.getMean());
+	}
+
+	@Test
+	public void concurrentRecordsAreAllCounted() throws InterruptedException
+	{
+		Histogram histogram = new Histogram();
+
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++)
+		{
+			long offset = t * 100_000L;
+			threads.add(new Thread(() ->
+			{
+				for (long i = 1; i <= 50_000; i++)
+				{
+					histogram.record(offset + i);
+				}
+			}));
+		}
+
+		threads.forEach(Thread::start);
+		for (Thread thread: threads)
+		{
+			thread.join();
+		}
+
+		Histogram.Snapshot snapshot = histogram.getSnapshot();
+		assertEquals(200_000L, snapshot.getCount());
+		assertEquals(350_000L, snapshot.getMax());
+	}
+}
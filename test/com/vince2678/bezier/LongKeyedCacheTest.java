@@ -0,0 +1,153 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class LongKeyedCacheTest
+{
+	@Test
+	public void packKeepsBothHalves()
+	{
+		long key = LongKeyedCache.pack(-7, -1);
+		assertEquals(-7, (int) (key >> 32));
+		assertEquals(-1, (int) key);
+		assertTrue(LongKeyedCache.pack(1, 2) != LongKeyedCache.pack(2, 1));
+	}
+
+	@Test
+	public void storesTypedValues()
+	{
+		LongKeyedCache cache = new LongKeyedCache(64);
+
+		cache.putInt(1L, -42);
+		cache.putLong(2L, Long.MAX_VALUE);
+		cache.putDouble(3L, 0.1D);
+
+		assertEquals(-42, cache.getInt(1L, 0));
+		assertEquals(Long.MAX_VALUE, cache.getLong(2L, 0L));
+		assertEquals(0.1D, cache.getDouble(3L, Double.NaN));
+		assertEquals(7, cache.getInt(4L, 7));
+		assertEquals(3, cache.size());
+	}
+
+	@Test
+	public void overwritesExistingKey()
+	{
+		LongKeyedCache cache = new LongKeyedCache(64);
+		cache.putLong(5L, 1L);
+		cache.putLong(5L, 2L);
+
+		assertEquals(2L, cache.getLong(5L, 0L));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void roundsCapacityUpToPowerOfTwo()
+	{
+		LongKeyedCache cache = new LongKeyedCache(200);
+
+		assertEquals(256, cache.getCapacity());
+		assertEquals(256, cache.getStats().getCapacity());
+		assertEquals(LongKeyedCache.PROBES, new LongKeyedCache(1).getCapacity());
+		assertEquals(64, new LongKeyedCache(64).getCapacity());
+	}
+
+	@Test
+	public void staysWithinCapacity()
+	{
+		LongKeyedCache cache = new LongKeyedCache(16);
+		for (long key = 0; key < 10_000; key++)
+		{
+			cache.putLong(key, key * 3);
+		}
+
+		assertTrue(cache.size() <= cache.getCapacity());
+		assertTrue(cache.getStats().getEvictions() > 0);
+
+		/* whatever survived eviction still maps to its own value */
+		for (long key = 0; key < 10_000; key++)
+		{
+			long value = cache.getLong(key, -1L);
+			assertTrue(value == -1L || value == key * 3);
+		}
+	}
+
+	@Test
+	public void countsHitsAndMisses()
+	{
+		LongKeyedCache cache = new LongKeyedCache(16);
+		cache.putInt(1L, 1);
+		cache.getInt(1L, 0);
+		cache.getInt(2L, 0);
+		cache.getInt(3L, 0);
+
+		CacheStats stats = cache.getStats();
+		assertEquals(1L, stats.getHits());
+		assertEquals(2L, stats.getMisses());
+
+		cache.resetStats();
+		assertEquals(0L, cache.getStats().getHits());
+	}
+
+	@Test
+	public void readersNeverSeeTornEntries() throws InterruptedException
+	{
+		/* a small table under heavy eviction, so slots are rewritten while being read */
+		LongKeyedCache cache = new LongKeyedCache(32);
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong torn = new AtomicLong();
+		AtomicLong hits = new AtomicLong();
+
+		List<Thread> threads = new ArrayList<>();
+		for (int w = 0; w < 2; w++)
+		{
+			threads.add(new Thread(() ->
+			{
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (running.get())
+				{
+					long key = random.nextLong(256);
+					cache.putLong(key, ~key);
+				}
+			}));
+		}
+		for (int r = 0; r < 2; r++)
+		{
+			threads.add(new Thread(() ->
+			{
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (running.get())
+				{
+					long key = random.nextLong(256);
+					long value = cache.getLong(key, key);
+					if (value == ~key)
+					{
+						hits.incrementAndGet();
+					}
+					else if (value != key)
+					{
+						torn.incrementAndGet();
+					}
+				}
+			}));
+		}
+
+		threads.forEach(Thread::start);
+		Thread.sleep(500);
+		running.set(false);
+		for (Thread thread: threads)
+		{
+			thread.join();
+		}
+
+		assertEquals(0L, torn.get());
+		assertTrue(hits.get() > 0);
+	}
+}
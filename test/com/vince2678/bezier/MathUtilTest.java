@@ -0,0 +1,80 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+
+public class MathUtilTest
+{
+	@Test
+	public void chooseReturnsIntCoefficients()
+	{
+		int coefficient = MathUtil.choose(5, 2);
+		assertEquals(10, coefficient);
+		assertEquals(1, MathUtil.choose(0, 0));
+		assertEquals(0, MathUtil.choose(3, 4));
+		assertEquals(601_080_390, MathUtil.choose(32, 16));
+		assertThrows(ArithmeticException.class, () -> MathUtil.choose(34, 17));
+	}
+
+	@Test
+	public void doubleCoefficientsMatchExact()
+	{
+		for (int n: new int[] {10, 66, 67, 100, 500})
+		{
+			for (int k = 0; k <= n; k += Math.max(n / 10, 1))
+			{
+				double exact = MathUtil.nCkExact(n, k).doubleValue();
+				assertEquals(exact, MathUtil.nCkDouble(n, k), exact * 1e-12D);
+			}
+		}
+	}
+
+	@Test
+	public void factorialMatchesNaiveProduct()
+	{
+		BigInteger naive = BigInteger.ONE;
+		for (int n = 0; n <= 300; n++)
+		{
+			if (n > 0)
+			{
+				naive = naive.multiply(BigInteger.valueOf(n));
+			}
+			assertEquals(naive, MathUtil.factorial(n), "n = " + n);
+
+			/* the second call comes from the cache */
+			assertEquals(naive, MathUtil.factorial(n), "n = " + n);
+		}
+		assertEquals(BigInteger.ZERO, MathUtil.factorial(-1));
+	}
+
+	@Test
+	public void factorialLongThrowsOnOverflow()
+	{
+		assertEquals(2_432_902_008_176_640_000L, MathUtil.factorialLong(MathUtil.MAXIMUM_LONG_FACTORIAL));
+		assertEquals(1L, MathUtil.factorialLong(0));
+		assertEquals(0L, MathUtil.factorialLong(-3));
+		assertThrows(ArithmeticException.class, () -> MathUtil.factorialLong(MathUtil.MAXIMUM_LONG_FACTORIAL + 1));
+	}
+
+	@Test
+	public void lnGammaMatchesKnownValues()
+	{
+		assertEquals(0.0D, MathUtil.lnGamma(1.0D), 1e-14D);
+		assertEquals(0.0D, MathUtil.lnGamma(2.0D), 1e-14D);
+		assertEquals(0.5723649429247001D, MathUtil.lnGamma(0.5D), 1e-13D);
+		assertEquals(2.252712651734206D, MathUtil.lnGamma(0.1D), 1e-13D);
+		assertEquals(12.801827480081469D, MathUtil.lnGamma(10.0D), 1e-12D);
+		assertEquals(363.73937555556347D, MathUtil.lnGamma(101.0D), 1e-10D);
+
+		/* past the table, doubles come from lnGamma */
+		for (int n: new int[] {21, 50, 170})
+		{
+			double exact = MathUtil.factorial(n).doubleValue();
+			assertEquals(exact, MathUtil.factorialDouble(n), exact * 1e-12D);
+			assertEquals(Math.log(exact), MathUtil.logFactorial(n), 1e-12D * Math.log(exact));
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class PathBufferTest
+{
+	@Test
+	public void growsPastItsCapacity()
+	{
+		PathBuffer buffer = new PathBuffer(1);
+		List<Point> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			buffer.add(i, -i);
+			expected.add(new Point(i, -i));
+		}
+
+		assertEquals(1000, buffer.size());
+		assertEquals(expected, buffer.toList());
+		assertEquals(999, buffer.getLastX());
+		assertEquals(-999, buffer.getLastY());
+	}
+
+	@Test
+	public void addsDistinctPointsOnly()
+	{
+		PathBuffer buffer = new PathBuffer();
+		assertTrue(buffer.addDistinct(1, 2));
+		assertFalse(buffer.addDistinct(1, 2));
+		assertTrue(buffer.addDistinct(1, 3));
+
+		assertEquals(List.of(new Point(1, 2), new Point(1, 3)), buffer.toList());
+	}
+
+	@Test
+	public void appendsAndCopies()
+	{
+		List<Point> path = List.of(new Point(0, 0), new Point(1, 1), new Point(2, 1));
+		PathBuffer buffer = PathBuffer.fromList(path);
+		buffer.addAll(PathBuffer.fromList(path));
+
+		assertEquals(6, buffer.size());
+		assertEquals(new Point(2, 1), buffer.get(5));
+
+		buffer.removeLast();
+		assertEquals(new Point(1, 1), buffer.get(4));
+	}
+
+	@Test
+	public void clearKeepsBufferUsable()
+	{
+		PathBuffer buffer = PathBuffer.fromList(List.of(new Point(5, 5)));
+		buffer.clear();
+
+		assertTrue(buffer.isEmpty());
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.getX(0));
+
+		buffer.visit(7, 8);
+		assertEquals(List.of(new Point(7, 8)), buffer.toList());
+	}
+
+	@Test
+	public void bufferOverloadsMatchListPaths()
+	{
+		BezierCurve curve = new BezierCurve(new Point(10, 20), new Point(400, 300), 4,
+			BezierCurve.Sampling.UNIFORM, new SplittableRandom(4));
+
+		for (BezierCurve.PathMode mode: BezierCurve.PathMode.values())
+		{
+			/* the buffer is cleared before the path is written */
+			PathBuffer buffer = new PathBuffer(1);
+			buffer.add(-1, -1);
+			curve.getPath(mode, buffer);
+
+			assertEquals(curve.getPath(mode), buffer.toList(), mode.name());
+		}
+	}
+
+	@Test
+	public void packsNegativeCoordinates()
+	{
+		long point = PathBuffer.pack(-3, -4);
+
+		assertEquals(-3, PathBuffer.unpackX(point));
+		assertEquals(-4, PathBuffer.unpackY(point));
+	}
+}
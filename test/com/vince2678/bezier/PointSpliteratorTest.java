@@ -0,0 +1,108 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class PointSpliteratorTest
+{
+	@Test
+	public void sequentialPointsMatchSampledPath()
+	{
+		for (int controls: new int[] {0, 3, 12})
+		{
+			for (long seed = 0; seed < 3; seed++)
+			{
+				BezierCurve curve = BezierCurveTest.curve(seed, controls);
+				List<Point> path = curve.getPath(BezierCurve.PathMode.SAMPLED);
+
+				assertEquals(path, unpack(curve.packedPoints(false).toArray()));
+				assertEquals(path, curve.points().collect(Collectors.toList()));
+
+				List<Point> iterated = new ArrayList<>();
+				PrimitiveIterator.OfLong iterator = curve.pointIterator();
+				while (iterator.hasNext())
+				{
+					long point = iterator.nextLong();
+					iterated.add(new Point(PathBuffer.unpackX(point), PathBuffer.unpackY(point)));
+				}
+				assertEquals(path, iterated);
+			}
+		}
+	}
+
+	@Test
+	public void parallelPointsMatchSampledPath()
+	{
+		for (int controls: new int[] {0, 3, 12})
+		{
+			for (long seed = 0; seed < 3; seed++)
+			{
+				BezierCurve curve = BezierCurveTest.curve(seed, controls);
+				List<Point> path = curve.getPath(BezierCurve.PathMode.SAMPLED);
+
+				assertEquals(path, unpack(curve.packedPoints(true).toArray()));
+			}
+		}
+
+		BezierCurve curve = longCurve();
+		assertEquals(curve.getPath(BezierCurve.PathMode.SAMPLED), unpack(curve.packedPoints(true).toArray()));
+	}
+
+	@Test
+	public void splitsConcatenateToTheWholePath()
+	{
+		BezierCurve curve = longCurve();
+		List<Point> path = curve.getPath(BezierCurve.PathMode.SAMPLED);
+
+		/* duplicates are skipped across split boundaries too */
+		List<Point> points = new ArrayList<>();
+		Spliterator.OfLong spliterator = curve.pointSpliterator();
+		Spliterator.OfLong prefix = spliterator.trySplit();
+		assertNotNull(prefix);
+		Spliterator.OfLong inner = prefix.trySplit();
+		assertNotNull(inner);
+
+		inner.forEachRemaining((long point) -> points.add(unpack(point)));
+		prefix.forEachRemaining((long point) -> points.add(unpack(point)));
+		assertTrue(spliterator.tryAdvance((long point) -> points.add(unpack(point))));
+		spliterator.forEachRemaining((long point) -> points.add(unpack(point)));
+
+		assertEquals(path, points);
+	}
+
+	/**
+	 * Get a curve long enough to have samples for several splits.
+	 */
+	private static BezierCurve longCurve()
+	{
+		BezierCurve curve = new BezierCurve(new Point(0, 0), new Point(30_000, 400), 6,
+			BezierCurve.Sampling.UNIFORM, new SplittableRandom(6));
+		assertTrue(curve.pointSpliterator().estimateSize() > 4 * PointSpliterator.MINIMUM_SPLIT);
+		return curve;
+	}
+
+	private static List<Point> unpack(long[] points)
+	{
+		List<Point> path = new ArrayList<>(points.length);
+		for (long point: points)
+		{
+			path.add(unpack(point));
+		}
+		return path;
+	}
+
+	private static Point unpack(long point)
+	{
+		return new Point(PathBuffer.unpackX(point), PathBuffer.unpackY(point));
+	}
+}
@@ -0,0 +1,112 @@
+package com.vince2678.bezier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class PointUtilTest
+{
+	@Test
+	public void sampledPointsAreDistinctAndInBounds()
+	{
+		SplittableRandom random = new SplittableRandom(1);
+		Rectangle bounds = new Rectangle(-5, 10, 17, 9);
+		Point excluded = new Point(-5, 10);
+
+		for (int count: new int[] {0, 1, 10, 100, 152})
+		{
+			List<Point> points = PointUtil.sampleDistinctPoints(bounds, count, random, excluded);
+
+			assertEquals(count, points.size());
+			assertEquals(count, new HashSet<>(points).size());
+			for (Point point: points)
+			{
+				assertTrue(point.x >= bounds.x && point.x < bounds.x + bounds.width);
+				assertTrue(point.y >= bounds.y && point.y < bounds.y + bounds.height);
+			}
+			assertFalse(points.contains(excluded));
+		}
+	}
+
+	@Test
+	public void sampledPointsFillSmallRegion()
+	{
+		Rectangle bounds = new Rectangle(0, 0, 4, 3);
+		Point[] excluded = {new Point(0, 0), new Point(3, 2), new Point(50, 50)};
+
+		List<Point> points = PointUtil.sampleDistinctPoints(bounds, 100, new SplittableRandom(2), excluded);
+
+		/* every point of the region except the two excluded ones inside it */
+		Set<Point> distinct = new HashSet<>(points);
+		assertEquals(10, points.size());
+		assertEquals(10, distinct.size());
+		assertFalse(distinct.contains(excluded[0]));
+		assertFalse(distinct.contains(excluded[1]));
+	}
+
+	@Test
+	public void sampledPointsAreUniform()
+	{
+		/* each of the 8 points of the region should be picked about count / 8 * trials times */
+		Rectangle bounds = new Rectangle(0, 0, 4, 2);
+		SplittableRandom random = new SplittableRandom(3);
+		int[] hits = new int[8];
+		int trials = 40_000;
+		for (int i = 0; i < trials; i++)
+		{
+			for (Point point: PointUtil.sampleDistinctPoints(bounds, 3, random))
+			{
+				hits[point.y * 4 + point.x]++;
+			}
+		}
+
+		double expected = trials * 3 / 8.0D;
+		for (int count: hits)
+		{
+			assertEquals(expected, count, 0.05D * expected);
+		}
+	}
+
+	@Test
+	public void sampledPointsAreEmptyForEmptyRegion()
+	{
+		assertTrue(PointUtil.sampleDistinctPoints(new Rectangle(0, 0, 0, 5), 3, new SplittableRandom(4)).isEmpty());
+	}
+
+	@Test
+	public void interpolatedPathIsGapFree()
+	{
+		SplittableRandom random = new SplittableRandom(5);
+		PathBuffer path = new PathBuffer();
+		for (int i = 0; i < 50; i++)
+		{
+			path.add(random.nextInt(-300, 300), random.nextInt(-300, 300));
+		}
+
+		PathBuffer out = new PathBuffer(1);
+		PointUtil.interpolatePath(path, out);
+
+		assertEquals(PointUtil.interpolatedSize(path), out.size());
+		assertEquals(path.getX(0), out.getX(0));
+		assertEquals(path.getLastY(), out.getLastY());
+		for (int i = 1; i < out.size(); i++)
+		{
+			int step = Math.max(Math.abs(out.getX(i) - out.getX(i - 1)), Math.abs(out.getY(i) - out.getY(i - 1)));
+			assertEquals(1, step);
+		}
+
+		/* the list version and a plain visitor see the same points */
+		assertEquals(out.toList(), PointUtil.interpolatePath(path.toList()));
+		PathBuffer visited = new PathBuffer();
+		PointUtil.interpolatePath(path, visited::add);
+		assertEquals(out.toList(), visited.toList());
+	}
+}